@@ -68,7 +68,7 @@ public class Commands {
 					.executes(context -> {
 						if (context.getSource().isExecutedByPlayer()) {
 							context.getSource().sendFeedback(() -> Text.literal("Executing attack event.").withColor(Formatting.BLUE.getColorValue()), false);
-							Attack.attack(context.getSource().getPlayer(), Algorithms.randomBetween(Attack.attackDamageMin, Attack.attackDamageMax), true);
+							Attack.attack(context.getSource().getPlayer(), Algorithms.randomBetween(PlayerData.getRandom(context.getSource().getPlayer()), Attack.attackDamageMin, Attack.attackDamageMax), true);
 						} else {
 							context.getSource().sendFeedback(() -> Text.literal("Cannot execute attack event on server. Please specify a player.").withColor(Formatting.DARK_RED.getColorValue()), false);
 						}
@@ -368,7 +368,7 @@ public class Commands {
 					.executes(context -> {
 						if (context.getSource().isExecutedByPlayer()) {
 							context.getSource().sendFeedback(() -> Text.literal("Executing footsteps event.").withColor(Formatting.BLUE.getColorValue()), false);
-							Footsteps.generateFootsteps(context.getSource().getPlayer(), Algorithms.RANDOM.nextBetween(Footsteps.footstepsStepsMin, Footsteps.footstepsStepsMax), true);
+							Footsteps.generateFootsteps(context.getSource().getPlayer(), PlayerData.getRandom(context.getSource().getPlayer()).nextBetween(Footsteps.footstepsStepsMin, Footsteps.footstepsStepsMax), true);
 						} else {
 							context.getSource().sendFeedback(() -> Text.literal("Cannot execute footsteps event on server. Please specify a player.").withColor(Formatting.DARK_RED.getColorValue()), false);
 						}
@@ -841,6 +841,15 @@ public class Commands {
 						})
 					)
 				)
+				.then(
+					literal("performance")
+					.executes(context -> {
+						for (final String stat : Events.getPerformanceStats()) {
+							context.getSource().sendFeedback(() -> Text.literal(stat).withColor(Formatting.BLUE.getColorValue()), false);
+						}
+						return 1;
+					})
+				)
 				.then(
 					literal("trackingFlickerDoor")
 					.executes(context -> {
@@ -927,7 +936,7 @@ public class Commands {
 		herobrineEntity = new HerobrineEntity(world, skin);
 		herobrineEntity.setPosition(player.getPos());
 		herobrineEntity.setBodyRotation(player.getYaw());
-		herobrineEntity.setHeadRotation(player.getPitch(), player.getYaw(), Algorithms.randomBetween(-15.0f, 15.0f));
+		herobrineEntity.setHeadRotation(player.getPitch(), player.getYaw(), Algorithms.randomBetween(PlayerData.getRandom(player), -15.0f, 15.0f));
 		herobrineEntity.summon();
 	}
 
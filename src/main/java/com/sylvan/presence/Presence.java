@@ -4,7 +4,11 @@ import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.entity.Entities;
 import com.sylvan.presence.event.*;
 import com.sylvan.presence.util.Algorithms;
+import com.sylvan.presence.util.BlockIndex;
+import com.sylvan.presence.util.CaveDetectionCache;
 import com.sylvan.presence.util.JsonFile;
+import com.sylvan.presence.util.SpawnCandidatePool;
+import com.sylvan.presence.util.StandableColumns;
 import net.minecraft.init.Blocks;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.Mod.EventHandler;
@@ -49,6 +53,9 @@ public class Presence {
         Algorithms.loadConfig();
         AmbientSounds.loadConfig();
         Attack.loadConfig();
+        BlockIndex.loadConfig();
+        BlockSearch.loadConfig();
+        CaveDetectionCache.loadConfig();
         ChatMessage.loadConfig();
         Creep.loadConfig();
         ExtinguishTorches.loadConfig();
@@ -56,11 +63,17 @@ public class Presence {
         FlowerGift.loadConfig();
         Footsteps.loadConfig();
         Freeze.loadConfig();
+        MainThreadQueue.loadConfig();
         NearbySounds.loadConfig();
         OpenChest.loadConfig();
         OpenDoor.loadConfig();
+        OperationLimiter.loadConfig();
+        RetryPolicy.loadConfig();
+        SpawnCandidatePool.loadConfig();
         Stalk.loadConfig();
+        StandableColumns.loadConfig();
         SubtitleWarning.loadConfig();
+        TickBudget.loadConfig();
         TrampleCrops.loadConfig();
     }
 }
@@ -0,0 +1,101 @@
+package com.sylvan.presence.data;
+
+import com.sylvan.presence.event.*;
+import com.sylvan.presence.util.TimerWheel;
+import net.minecraft.entity.player.EntityPlayer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+public class HauntSession {
+	private final EntityPlayer player;
+	private final Map<String, TimerWheel.Timer> eventTimers = new HashMap<>();
+	private final Set<TimerWheel.Timer> pendingTimers = new HashSet<>();
+	private final Map<String, RetryPolicy.Attempts> retryAttempts = new HashMap<>();
+	private boolean cancelled = false;
+
+	public HauntSession(final EntityPlayer player) {
+		this.player = player;
+	}
+
+	public EntityPlayer getPlayer() {
+		return player;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public int getTimerCount() {
+		return eventTimers.size() + pendingTimers.size();
+	}
+
+	// Timers are reused by each event chain instead of allocating a new scheduled task per delay.
+	// The task is only built when the timer is first made, so pass a method reference rather than a capturing lambda
+	public TimerWheel.Timer getEventTimer(final String event, final Function<HauntSession, Runnable> taskFactory) {
+		TimerWheel.Timer timer = eventTimers.get(event);
+		if (timer == null) {
+			final Runnable task = taskFactory.apply(this);
+			// A task may already be queued for the server thread when the session ends, so check again before running it
+			timer = Events.timers.newTimer(player.getUuid(), () -> {
+				if (!cancelled) task.run();
+			});
+			eventTimers.put(event, timer);
+		}
+		return timer;
+	}
+
+	public RetryPolicy.Attempts getRetryAttempts(final String event) {
+		// Attempts live with the session so a new dimension or respawn starts every backoff fresh
+		return retryAttempts.computeIfAbsent(event, key -> new RetryPolicy.Attempts());
+	}
+
+	public void schedule(final Runnable task, final long delay, final TimeUnit unit) {
+		if (cancelled) return;
+		final PendingTask pendingTask = new PendingTask(task);
+		pendingTask.timer = Events.timers.newTimer(player.getUuid(), pendingTask);
+		pendingTimers.add(pendingTask.timer);
+		pendingTask.timer.arm(Events.toTicks(delay, unit));
+	}
+
+	public void cancel() {
+		if (cancelled) return;
+		cancelled = true;
+
+		for (final TimerWheel.Timer timer : eventTimers.values()) {
+			timer.cancel();
+		}
+		eventTimers.clear();
+		for (final TimerWheel.Timer timer : pendingTimers) {
+			timer.cancel();
+		}
+		pendingTimers.clear();
+		OperationLimiter.cancel(player.getUuid());
+
+		// Drop everything the events are tracking for this player
+		Creep.onSessionEnd(player);
+		ExtinguishTorches.onSessionEnd(player);
+		FlickerDoor.onSessionEnd(player);
+		Freeze.onSessionEnd(player);
+		Stalk.onSessionEnd(player);
+	}
+
+	private class PendingTask implements Runnable {
+		private final Runnable task;
+		private TimerWheel.Timer timer;
+
+		private PendingTask(final Runnable task) {
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			pendingTimers.remove(timer);
+			if (!cancelled) task.run();
+		}
+	}
+}
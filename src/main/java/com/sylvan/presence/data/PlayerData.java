@@ -4,20 +4,28 @@ import com.google.gson.JsonObject;
 import com.sylvan.presence.Presence;
 import com.sylvan.presence.event.*;
 import com.sylvan.presence.util.Algorithms;
+import com.sylvan.presence.util.CaveDetectionCache;
+import com.sylvan.presence.util.EnvironmentProbe;
 import com.sylvan.presence.util.JsonFile;
+import com.sylvan.presence.util.RandomHelper;
+import com.sylvan.presence.util.SpawnCandidatePool;
+import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.WorldSavePath;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public class PlayerData {
 	private static final Map<UUID, PlayerData> playerDataMap = new HashMap<>();
+	private static final ArrayDeque<PlayerData> spawnPoolFillOrder = new ArrayDeque<>();	// Rotated each tick so the fill deadline never lands on the same players
 	private static MinecraftServer server;
 	private static String playerDataDirectory;
 
@@ -31,7 +39,13 @@ public class PlayerData {
 
 	public static PlayerData addPlayerData(final EntityPlayer player) {
 		final PlayerData playerData = new PlayerData(player);
-		playerDataMap.put(player.getUuid(), playerData);
+		final PlayerData previousPlayerData = playerDataMap.put(player.getUuid(), playerData);
+		if (previousPlayerData != null) {
+			previousPlayerData.session.cancel();
+			previousPlayerData.caveCache.invalidate();
+			spawnPoolFillOrder.remove(previousPlayerData);
+		}
+		spawnPoolFillOrder.addLast(playerData);
 		return playerData;
 	}
 
@@ -40,6 +54,12 @@ public class PlayerData {
 		else return new PlayerData(player);
 	}
 
+	public static RandomHelper getRandom(final Entity entity) {
+		// Tracked players each own a stream, so one player's events never shift another's timeline
+		final PlayerData playerData = playerDataMap.get(entity.getUuid());
+		return (playerData == null) ? Algorithms.getSharedRandom() : playerData.random;
+	}
+
 	public static void loadConfig() {
 		try {
 			defaultHauntChance = Presence.config.getOrSetValue("defaultHauntChance", defaultHauntChance).getAsFloat();
@@ -64,6 +84,32 @@ public class PlayerData {
 		return server != null && server.isRunning();
 	}
 
+	public static void cancelSessions() {
+		for (final PlayerData playerData : playerDataMap.values()) {
+			playerData.session.cancel();
+		}
+	}
+
+	public static void fillSpawnPools() {
+		// Filling reads blocks from the world, so it stays on the server thread under a time budget
+		final long deadlineNanos = SpawnCandidatePool.getFillDeadline();
+		for (int i = spawnPoolFillOrder.size(); i > 0; --i) {
+			// Whoever is cut off by the deadline goes to the back, so next tick starts with someone else
+			final PlayerData playerData = spawnPoolFillOrder.pollFirst();
+			spawnPoolFillOrder.addLast(playerData);
+			if (!playerData.isHaunted || playerData.player == null || playerData.player.isRemoved()) continue;
+			if (!playerData.spawnPool.fill(playerData.player, deadlineNanos)) return;
+		}
+	}
+
+	public static int getActiveSessionCount() {
+		int count = 0;
+		for (final PlayerData playerData : playerDataMap.values()) {
+			if (!playerData.session.isCancelled()) ++count;
+		}
+		return count;
+	}
+
 	// Instance
 	private final UUID uuid;
 	private EntityPlayer player;
@@ -76,11 +122,24 @@ public class PlayerData {
 	private float hauntChance = defaultHauntChance;	// Chance of being haunted when joining the server
 	private long playTime = 0;			// Time in minutes that the player has played
 
+	private HauntSession session;			// Owns every pending event timer for this player
+	private final RandomHelper random;		// Seeded from the player UUID and world seed so event timelines can be reproduced
+	private final CaveDetectionCache caveCache = new CaveDetectionCache();
+	private final EnvironmentProbe environmentProbe = new EnvironmentProbe(caveCache);
+	private final Function<HauntSession, Runnable> hauntLevelTask = newSession -> () -> {
+		calculateHauntLevel();
+		scheduleHauntLevelCalculation();
+	};
+	private final SpawnCandidatePool spawnPool;	// Has its own random stream, so filling in the background never shifts the event timeline
+
 	private PlayerData(final EntityPlayer playerEntity) {
 		this.player = playerEntity;
 		this.uuid = playerEntity.getUuid();
 		this.playerDataPath = playerDataDirectory + uuid.toString();
 		this.joinTime = LocalDateTime.now();
+		this.session = new HauntSession(playerEntity);
+		this.random = newEventRandom(uuid, playerEntity.getEntityWorld().getSeed());
+		this.spawnPool = new SpawnCandidatePool(random.split());
 		load();
 		rollHauntChance();
 	}
@@ -98,6 +157,34 @@ public class PlayerData {
 		return player;
 	}
 
+	public RandomHelper getRandom() {
+		return random;
+	}
+
+	public CaveDetectionCache getCaveCache() {
+		return caveCache;
+	}
+
+	public EnvironmentProbe getEnvironmentProbe() {
+		return environmentProbe;
+	}
+
+	public SpawnCandidatePool getSpawnPool() {
+		return spawnPool;
+	}
+
+	public HauntSession getSession() {
+		return session;
+	}
+
+	public void restartSession(final EntityPlayer playerEntity) {
+		// Cancel events bound to the old player entity or dimension and start over
+		session.cancel();
+		player = playerEntity;
+		session = new HauntSession(playerEntity);
+		startEvents();
+	}
+
 	public boolean isHaunted() {
 		return isHaunted;
 	}
@@ -107,10 +194,20 @@ public class PlayerData {
 	}
 
 	public boolean rollHauntChance() {
-		this.isHaunted = Algorithms.RANDOM.nextFloat() <= hauntChance;
+		this.isHaunted = rollHauntChance(hauntChance);
 		return isHaunted;
 	}
 
+	// The player's own stream starts the same way on every join, so rolling from it would haunt the same players every time
+	static boolean rollHauntChance(final float hauntChance) {
+		return Algorithms.getSharedRandom().nextFloat() <= hauntChance;
+	}
+
+	// Only for event timing, which should be reproducible for a player and world
+	static RandomHelper newEventRandom(final UUID uuid, final long worldSeed) {
+		return new RandomHelper(uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits() ^ worldSeed);
+	}
+
 	public float calculateHauntChance() {
 		if (isHaunted && hauntChance > hauntChanceMaxBeforeReset) {
 			// Reset haunt chance
@@ -170,13 +267,7 @@ public class PlayerData {
 	}
 
 	private void scheduleHauntLevelCalculation() {
-		Events.scheduler.schedule(
-			() -> {
-				calculateHauntLevel();
-				if (!player.isRemoved()) scheduleHauntLevelCalculation();
-			},
-			hauntLevelCalculationDelay, TimeUnit.SECONDS
-		);
+		session.getEventTimer("hauntLevel", hauntLevelTask).arm(Events.toTicks(hauntLevelCalculationDelay, TimeUnit.SECONDS));
 	}
 
 	private void load() {
@@ -192,9 +283,12 @@ public class PlayerData {
 	}
 
 	public void remove() {
+		session.cancel();
+		caveCache.invalidate();
 		calculateHauntChance();
 		save();
 		playerDataMap.remove(uuid);
+		spawnPoolFillOrder.remove(this);
 	}
 
 	public void save() {
@@ -1,14 +1,18 @@
 package com.sylvan.presence.entity;
 
+import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.event.Creep;
 import com.sylvan.presence.util.Algorithms;
+import com.sylvan.presence.util.MutableVec3d;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
 
 public class CreepingEntity extends HerobrineEntity {
 	private final EntityPlayer trackedPlayer;
+	private final MutableVec3d towardsPlayer = new MutableVec3d();	// Scratch vectors reused every tick
+	private final MutableVec3d spawnPos = new MutableVec3d();
 
 	public CreepingEntity(World world, String skin, EntityPlayer trackedPlayer) {
 		super(world, skin);
@@ -20,46 +24,30 @@ public class CreepingEntity extends HerobrineEntity {
 
 		// Inch forward toward player
 		// Pretend player and Herobrine are on the same block to prevent direction from being dependent on Y-axis
-		final Vec3d playerXZ = new Vec3d(
-			trackedPlayer.getPositionVector().x,
-			0,
-			trackedPlayer.getPositionVector().z
-		);
-		final Vec3d herobrineXZ = new Vec3d(
-			this.getPos().x,
-			0,
-			this.getPos().z
-		);
-		final double playerDistanceXZ = playerXZ.distanceTo(herobrineXZ);
-		final Vec3d towardsPlayer = Algorithms.getDirectionPosToPos(
-			herobrineXZ,
-			playerXZ
-		);
+		towardsPlayer.set(trackedPlayer.posX - getX(), 0, trackedPlayer.posZ - getZ());
+		final double playerDistanceXZ = towardsPlayer.length();
+		towardsPlayer.normalize();
 
 		// Calculate spawn position
-		Vec3d spawnPos = Algorithms.getPosOffsetInDirection(
-			this.getPos(),
+		spawnPos.set(getX(), getY(), getZ()).addScaled(
 			towardsPlayer,
 			(float) Math.max(
 				0,
-				playerDistanceXZ - Algorithms.RANDOM.nextBetween(Creep.creepDistanceMin, Creep.creepDistanceMax)
+				playerDistanceXZ - PlayerData.getRandom(getTrackedPlayer()).nextBetween(Creep.creepDistanceMin, Creep.creepDistanceMax)
 			)
 		);
+		final int playerY = MathHelper.floor(trackedPlayer.posY + 0.5);	// Same as getPosition().getY()
 		final BlockPos spawnBlockPos = Algorithms.getNearestStandableBlockPos(
 			world,
-			Algorithms.getBlockPosFromVec3d(spawnPos),
-			trackedPlayer.getPosition().getY() - Creep.creepVerticalDistanceMax,
-			trackedPlayer.getPosition().getY() + Creep.creepVerticalDistanceMax
-		);
-		spawnPos = new Vec3d(
-			spawnPos.x,
-			spawnBlockPos.up().getY(), // Spawn on block while keeping X/Z offset
-			spawnPos.z
+			spawnPos.toBlockPos(),
+			playerY - Creep.creepVerticalDistanceMax,
+			playerY + Creep.creepVerticalDistanceMax
 		);
-		if (!Algorithms.couldPlayerStandOnBlock(world, Algorithms.getBlockPosFromVec3d(spawnPos).down())) return;
+		// Spawn on block while keeping X/Z offset, which rounds back to spawnBlockPos
+		if (!Algorithms.couldPlayerStandOnBlock(world, spawnBlockPos)) return;
 
 		// Set position and look at player
-		this.moveTo(spawnPos);
+		this.moveTo(spawnPos.x, spawnBlockPos.getY() + 1, spawnPos.z);
 		this.lookAt(trackedPlayer);
 	}
 
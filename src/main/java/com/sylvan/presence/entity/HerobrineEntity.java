@@ -2,6 +2,7 @@ package com.sylvan.presence.entity;
 
 import com.sylvan.presence.event.Events;
 import com.sylvan.presence.util.Algorithms;
+import com.sylvan.presence.util.MutableVec3d;
 import net.minecraft.component.DataComponentTypes;
 import net.minecraft.component.type.CustomModelDataComponent;
 import net.minecraft.entity.Entity;
@@ -13,7 +14,6 @@ import net.minecraft.entity.MoverType;
 import net.minecraft.entity.decoration.EntityArmorStand;
 import net.minecraft.entity.item.EntityArmorStand;
 import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.init.Blocks;
 import net.minecraft.init.Items;
 import net.minecraft.inventory.EntityEntityEquipmentSlot;
@@ -40,11 +40,23 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 public class HerobrineEntity {
+	private static final double SIGHT_RANGE = 128.0;					// Players farther than this cannot see Herobrine
+	private static final double[] SILHOUETTE_SAMPLE_HEIGHTS = { 0.15, 0.55, 1.0 };	// Legs, chest and eyes, as fractions of eye height
+
+	private static long sightChecks = 0;
+	private static long sightPlayers = 0;
+	private static long sightPlayersInRange = 0;
+	private static long sightSamples = 0;
+	private static long sightings = 0;
+
 	private final World world;
 	private final EntityArmorStand headEntity;
 	private final EntityArmorStand bodyEntity;
 	private final EntityArmorStand armsEntity;
 	private final EntityArmorStand legsEntity;
+	private final MutableVec3d lookDirection = new MutableVec3d();	// Reused by lookAt every tick
+	private float headPitch = Float.NaN, headYaw = Float.NaN, headRoll = Float.NaN;	// Last rotations sent to the armor stands, so unchanged ones are not sent again
+	private float bodyYaw = Float.NaN;
 
 	private static final NBTTagCompound headBodyCompound = new NBTTagCompound();
 	private static final NBTTagCompound legsCompound = new NBTTagCompound();
@@ -133,7 +145,7 @@ public class HerobrineEntity {
 	}
 
 	public void scheduleRemoval(final long ms) {
-		Events.scheduler.schedule(
+		Events.scheduleOnTick(
 				this::remove, ms, TimeUnit.MILLISECONDS
 		);
 	}
@@ -153,11 +165,17 @@ public class HerobrineEntity {
 	}
 
 	public void setHeadRotation(final float pitch, final float yaw, final float roll) {
+		if (pitch == headPitch && yaw == headYaw && roll == headRoll) return;
+		headPitch = pitch;
+		headYaw = yaw;
+		headRoll = roll;
 		final Rotations headRotation = new Rotations(pitch, yaw, roll);
 		headEntity.setHeadRotation(headRotation);
 	}
 
 	public void setBodyRotation(final float yaw) {
+		if (yaw == bodyYaw) return;
+		bodyYaw = yaw;
 		final Rotations rotation = new Rotations(0.0f, yaw, 0.0f);
 		bodyEntity.setBodyRotation(rotation);
 		armsEntity.setBodyRotation(rotation);
@@ -172,48 +190,94 @@ public class HerobrineEntity {
 	}
 
 	public void lookAt(final Entity entity) {
-		final Vec3d direction = Algorithms.getDirectionPosToPos(headEntity.getPositionEyes(1), entity.getPositionEyes(1));
-		final EulerAngle rotation = Algorithms.directionToAngles(direction);
-		setHeadRotation(rotation.getPitch(), rotation.getYaw(), 0.0f);
-		setBodyRotation(rotation.getYaw());
+		// Eye to eye, without the Vec3d and Rotations that getPositionEyes and directionToAngles would allocate
+		lookDirection.set(entity.posX, entity.posY + entity.getEyeHeight(), entity.posZ)
+			.subtract(headEntity.posX, headEntity.posY + headEntity.getEyeHeight(), headEntity.posZ)
+			.normalize();
+		final float yaw = lookDirection.getYaw();
+		setHeadRotation(lookDirection.getPitch(), yaw, 0.0f);
+		setBodyRotation(yaw);
 	}
 
 	public boolean isSeenByPlayers(final double dotProductThreshold) {
-		final List<EntityPlayerMP> players = headEntity.getServer().getPlayerList().getPlayers();
-		final double maxY = headEntity.getPosition().getY() + headEntity.getEyeHeight();
-		Vec3d pos = headEntity.getPositionVector();
-		while (pos.y < maxY) {
-			for (final EntityPlayer player : players) {
-				if (Algorithms.isPositionLookedAtByEntity(player, pos, dotProductThreshold)) return true;
-				pos = pos.add(new Vec3d(0, 0.25, 0));
+		// Only players in this world can see Herobrine, and indexing avoids an iterator per tick
+		final List<EntityPlayer> players = world.playerEntities;
+		final int dimension = world.provider.getDimension();
+		final double x = headEntity.posX, y = headEntity.posY, z = headEntity.posZ;
+		final double eyeHeight = headEntity.getEyeHeight();
+		++sightChecks;
+		sightPlayers += players.size();
+		for (int i = 0; i < players.size(); ++i) {
+			final EntityPlayer player = players.get(i);
+			if (player.getDistanceSq(x, y, z) > SIGHT_RANGE * SIGHT_RANGE) continue;
+			++sightPlayersInRange;
+			for (final double sampleHeight : SILHOUETTE_SAMPLE_HEIGHTS) {
+				++sightSamples;
+				if (Algorithms.isPositionLookedAtByEntity(player, dimension, x, y + sampleHeight * eyeHeight, z, dotProductThreshold)) {
+					++sightings;
+					return true;
+				}
 			}
 		}
 		return false;
 	}
 
+	// How much of the player list each visibility test actually works through
+	public static String getSightStats() {
+		return String.format(
+			"Herobrine sight checks: %d checks, %.1f players in world and %.1f in range per check, %.1f samples per check, %d sightings",
+			sightChecks,
+			sightPlayers / (double) Math.max(1, sightChecks),
+			sightPlayersInRange / (double) Math.max(1, sightChecks),
+			sightSamples / (double) Math.max(1, sightChecks),
+			sightings
+		);
+	}
+
 	public boolean isWithinDistanceOfPlayers(final float distance) {
-		final List<EntityPlayerMP> players = headEntity.getServer().getPlayerList().getPlayers();
-		for (final EntityPlayer player : players) {
-			if (player.getPositionVector().distanceTo(headEntity.getPositionVector()) < distance) return true;
+		// Only players in Herobrine's own dimension can be near him
+		final List<EntityPlayer> players = headEntity.world.playerEntities;
+		for (int i = 0; i < players.size(); ++i) {
+			if (players.get(i).getDistanceSq(headEntity.posX, headEntity.posY, headEntity.posZ) < (double) distance * distance) return true;
 		}
 		return false;
 	}
 
 	public void move(final Vec3d movementOffset) {
-		headEntity.move(MoverType.SELF, movementOffset.x, movementOffset.y, movementOffset.z);
-		bodyEntity.move(MoverType.SELF, movementOffset.x, movementOffset.y, movementOffset.z);
-		armsEntity.move(MoverType.SELF, movementOffset.x, movementOffset.y, movementOffset.z);
-		legsEntity.move(MoverType.SELF, movementOffset.x, movementOffset.y, movementOffset.z);
+		move(movementOffset.x, movementOffset.y, movementOffset.z);
+	}
+
+	public void move(final double x, final double y, final double z) {
+		headEntity.move(MoverType.SELF, x, y, z);
+		bodyEntity.move(MoverType.SELF, x, y, z);
+		armsEntity.move(MoverType.SELF, x, y, z);
+		legsEntity.move(MoverType.SELF, x, y, z);
 	}
 
 	public void moveTo(final Vec3d newPos) {
-		move(newPos.subtract(getPos()));
+		moveTo(newPos.x, newPos.y, newPos.z);
+	}
+
+	public void moveTo(final double x, final double y, final double z) {
+		move(x - headEntity.posX, y - headEntity.posY, z - headEntity.posZ);
 	}
 
 	public Vec3d getPos() {
 		return headEntity.getPositionVector();
 	}
 
+	public double getX() {
+		return headEntity.posX;
+	}
+
+	public double getY() {
+		return headEntity.posY;
+	}
+
+	public double getZ() {
+		return headEntity.posZ;
+	}
+
 	public Vec3d getEyePos() {
 		return headEntity.getPositionEyes(1);
 	}
@@ -3,8 +3,12 @@ package com.sylvan.presence.event;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.HauntSession;
 import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.util.Algorithms;
+import com.sylvan.presence.util.EnvironmentProbe;
+import com.sylvan.presence.util.RandomHelper;
+import com.sylvan.presence.util.WeightedSampler;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.init.SoundEvents;
 import net.minecraft.util.ResourceLocation;
@@ -18,6 +22,7 @@ import java.util.concurrent.TimeUnit;
 
 public class AmbientSounds {
 	private static final Map<SoundEvent, Float> ambientSounds = new HashMap<>();
+	private static WeightedSampler<SoundEvent> ambientSoundsSampler = WeightedSampler.empty();	// Compiled from ambientSounds in initEvent
 
 	// Config
 	public static boolean ambientSoundsEnabled = true;			// Whether the ambient sounds event is active
@@ -32,6 +37,8 @@ public class AmbientSounds {
 	private static float ambientSoundsPitchMax = 0.5f;			// The maximum sound pitch
 	private static JsonObject ambientSoundsSoundWeights = new JsonObject();	// A set of sound ID keys with weight values to play during the event
 
+	private static final RetryPolicy retryPolicy = RetryPolicy.forEvent("ambientSounds");
+
 	public static void loadConfig() {
 		// TODO Add sounds to texture pack/mod
 		ambientSoundsSoundWeights.addProperty(SoundEvents.AMBIENT_CAVE.getRegistryName().getResourcePath(), 35.0f);
@@ -59,7 +66,7 @@ public class AmbientSounds {
 			ambientSoundsPitchMin = Presence.config.getOrSetValue("ambientSoundsPitchMin", ambientSoundsPitchMin).getAsFloat();
 			ambientSoundsPitchMax = Presence.config.getOrSetValue("ambientSoundsPitchMax", ambientSoundsPitchMax).getAsFloat();
 			ambientSoundsSoundWeights = Presence.config.getOrSetValue("ambientSoundsSoundWeights", ambientSoundsSoundWeights).getAsJsonObject();
-		} catch (UnsupportedOperationException e) {
+		} catch (UnsupportedOperationException | IllegalStateException e) {
 			Presence.LOGGER.error("Configuration issue for AmbientSounds.java. Wiping and using default values.", e);
 			Presence.config.wipe();
 			Presence.initConfig();
@@ -68,6 +75,7 @@ public class AmbientSounds {
 
 	public static void initEvent() {
 		try {
+			ambientSounds.clear();
 			String key;
 			for (Map.Entry<String, JsonElement> entry : ambientSoundsSoundWeights.entrySet()) {
 				key = entry.getKey();
@@ -79,6 +87,7 @@ public class AmbientSounds {
 				}
 				ambientSounds.put(sound, entry.getValue().getAsFloat());
 			}
+			ambientSoundsSampler = WeightedSampler.compile(ambientSounds);
 		} catch (UnsupportedOperationException e) {
 			Presence.LOGGER.error("Configuration issue for AmbientSounds.java. Wiping and using default values.", e);
 			Presence.config.wipe();
@@ -91,7 +100,7 @@ public class AmbientSounds {
 		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
 		scheduleEventWithDelay(
 			player,
-			Algorithms.RANDOM.nextBetween(
+			PlayerData.getRandom(player).nextBetween(
 				Algorithms.divideByFloat(ambientSoundsDelayMin, hauntLevel),
 				Algorithms.divideByFloat(ambientSoundsDelayMax, hauntLevel)
 			)
@@ -99,24 +108,47 @@ public class AmbientSounds {
 	}
 
 	public static void scheduleEventWithDelay(final EntityPlayer player, final int delay) {
-		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
-		Events.scheduler.schedule(
-			() -> {
-				if (playAmbientSound(player, false)) {
-					scheduleEventWithDelay(
-						player,
-						Algorithms.RANDOM.nextBetween(
-							Algorithms.divideByFloat(ambientSoundsDelayMin, hauntLevel),
-							Algorithms.divideByFloat(ambientSoundsDelayMax, hauntLevel)
-						)
-					);
-				} else {
-					// Retry if it is a bad time
-					scheduleEventWithDelay(player, ambientSoundsRetryDelay);
-				}
-			},
-			delay, TimeUnit.SECONDS
-		);
+		PlayerData.getPlayerData(player).getSession().getEventTimer("ambientSounds", AmbientSounds::newEventTask).arm(Events.toTicks(delay, TimeUnit.SECONDS));
+	}
+
+	private static Runnable newEventTask(final HauntSession session) {
+		final EntityPlayer player = session.getPlayer();
+		final PlayerData playerData = PlayerData.getPlayerData(player);
+		final Runnable detectionTask = () -> {
+			final float hauntLevel = playerData.getHauntLevel();
+			if (playAmbientSound(player, false)) {
+				retryPolicy.onSuccess(player);
+				scheduleEventWithDelay(
+					player,
+					PlayerData.getRandom(player).nextBetween(
+						Algorithms.divideByFloat(ambientSoundsDelayMin, hauntLevel),
+						Algorithms.divideByFloat(ambientSoundsDelayMax, hauntLevel)
+					)
+				);
+			} else {
+				// Retry if it is a bad time, backing off while it keeps failing
+				scheduleEventWithDelay(player, retryPolicy.getRetryDelay(player, ambientSoundsRetryDelay));
+			}
+		};
+		final EnvironmentProbe environment = playerData.getEnvironmentProbe();
+		return () -> {
+			// Only a cave detection that will actually cast rays needs a permit
+			if (
+				!ambientSoundsCaveConstraint ||
+				playerData.getHauntLevel() < ambientSoundsHauntLevelMin ||
+				(ambientSoundsDarknessConstraint && !environment.isInDarkness(player, ambientSoundsLightLevelMax)) ||
+				environment.hasCaveVerdict(player)
+			) {
+				detectionTask.run();
+				return;
+			}
+
+			// Cave detection casts dozens of rays, so limit how many players do it at once
+			if (!OperationLimiter.submit(OperationLimiter.Operation.CAVE_DETECTION, player.getUuid(), detectionTask)) {
+				// Too many players are already waiting, so treat it like any other bad time
+				scheduleEventWithDelay(player, retryPolicy.getRetryDelay(player, ambientSoundsRetryDelay));
+			}
+		};
 	}
 
 	public static boolean playAmbientSound(final EntityPlayer player, final boolean overrideHauntLevel) {
@@ -125,13 +157,16 @@ public class AmbientSounds {
 			if (hauntLevel < ambientSoundsHauntLevelMin) return true; // Reset event as if it passed
 		}
 
+		final EnvironmentProbe environment = PlayerData.getPlayerData(player).getEnvironmentProbe();
 		if (
-			(ambientSoundsCaveConstraint && !Algorithms.isEntityInCave(player)) ||					// Player must be in a cave
-			(ambientSoundsDarknessConstraint && !Algorithms.isEntityInDarkness(player, ambientSoundsLightLevelMax))	// Player must be in darkness
+			(ambientSoundsDarknessConstraint && !environment.isInDarkness(player, ambientSoundsLightLevelMax)) ||	// Player must be in darkness
+			(ambientSoundsCaveConstraint && !environment.isInCave(player))						// Player must be in a cave, checked last since it casts rays
 		) return false;
 
-		final float pitch = Algorithms.randomBetween(ambientSoundsPitchMin, ambientSoundsPitchMax);
-		final SoundEvent sound = Algorithms.randomKeyFromWeightMap(ambientSounds);
+		final RandomHelper random = PlayerData.getRandom(player);
+		final float pitch = Algorithms.randomBetween(random, ambientSoundsPitchMin, ambientSoundsPitchMax);
+		final SoundEvent sound = ambientSoundsSampler.sample(random);
+		if (sound == null) return true; // No sounds configured
 		player.getEntityWorld().playSound(player, player.getPosition(), sound, SoundCategory.AMBIENT, 256.0f, pitch);
 		return true;
 	}
@@ -1,8 +1,10 @@
 package com.sylvan.presence.event;
 
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.HauntSession;
 import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.util.Algorithms;
+import com.sylvan.presence.util.RandomHelper;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.DamageSource;
 import net.minecraft.util.math.Vec3d;
@@ -23,6 +25,8 @@ public class Attack {
 	private static float attackPushMax = 0.5f;			// The maximum push distance
 	private static float attackPushVertical = 0.5f;			// The vertical push distance
 
+	private static final RetryPolicy retryPolicy = RetryPolicy.forEvent("attack");
+
 	public static void loadConfig() {
 		try {
 			attackEnabled = Presence.config.getOrSetValue("attackEnabled", attackEnabled).getAsBoolean();
@@ -48,7 +52,7 @@ public class Attack {
 		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
 		scheduleEventWithDelay(
 			player,
-			Algorithms.RANDOM.nextBetween(
+			PlayerData.getRandom(player).nextBetween(
 				Algorithms.divideByFloat(attackDelayMin, hauntLevel),
 				Algorithms.divideByFloat(attackDelayMax, hauntLevel)
 			)
@@ -56,24 +60,28 @@ public class Attack {
 	}
 
 	public static void scheduleEventWithDelay(final EntityPlayer player, final int delay) {
-		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
-		Events.scheduler.schedule(
-			() -> {
-				if (attack(player, Algorithms.randomBetween(attackDamageMin, attackDamageMax), false)) {
-					scheduleEventWithDelay(
-						player,
-						Algorithms.RANDOM.nextBetween(
-							Algorithms.divideByFloat(attackDelayMin, hauntLevel),
-							Algorithms.divideByFloat(attackDelayMax, hauntLevel)
-						)
-					);
-				} else {
-					// Retry if it is a bad time
-					scheduleEventWithDelay(player, attackRetryDelay);
-				}
-			},
-			delay, TimeUnit.SECONDS
-		);
+		PlayerData.getPlayerData(player).getSession().getEventTimer("attack", Attack::newEventTask).arm(Events.toTicks(delay, TimeUnit.SECONDS));
+	}
+
+	private static Runnable newEventTask(final HauntSession session) {
+		final EntityPlayer player = session.getPlayer();
+		final PlayerData playerData = PlayerData.getPlayerData(player);
+		return () -> {
+			final float hauntLevel = playerData.getHauntLevel();
+			if (attack(player, Algorithms.randomBetween(PlayerData.getRandom(player), attackDamageMin, attackDamageMax), false)) {
+				retryPolicy.onSuccess(player);
+				scheduleEventWithDelay(
+					player,
+					PlayerData.getRandom(player).nextBetween(
+						Algorithms.divideByFloat(attackDelayMin, hauntLevel),
+						Algorithms.divideByFloat(attackDelayMax, hauntLevel)
+					)
+				);
+			} else {
+				// Retry if it is a bad time, backing off while it keeps failing
+				scheduleEventWithDelay(player, retryPolicy.getRetryDelay(player, attackRetryDelay));
+			}
+		};
 	}
 
 	public static boolean attack(final EntityPlayer player, final float damage, final boolean overrideHauntLevel) {
@@ -88,7 +96,8 @@ public class Attack {
 		player.attackEntityFrom(DamageSource.GENERIC, damage);
 
 		// Push player in a random direction
-		final Vec3d randomPush = Algorithms.multiplyVec3d(Algorithms.getRandomDirection(false), Algorithms.randomBetween(attackPushMin, attackPushMax));
+		final RandomHelper random = PlayerData.getRandom(player);
+		final Vec3d randomPush = Algorithms.multiplyVec3d(Algorithms.getRandomDirection(random, false), Algorithms.randomBetween(random, attackPushMin, attackPushMax));
 		player.addVelocity(randomPush.x, attackPushVertical, randomPush.z);
 
 		return true;
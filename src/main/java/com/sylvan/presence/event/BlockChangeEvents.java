@@ -0,0 +1,38 @@
+package com.sylvan.presence.event;
+
+import com.sylvan.presence.util.BlockIndex;
+import com.sylvan.presence.util.CaveDetectionCache;
+import com.sylvan.presence.util.StandableColumns;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+// Keeps caches of world state in step with the server world
+public class BlockChangeEvents {
+	@SubscribeEvent
+	public static void onNeighborNotify(final BlockEvent.NeighborNotifyEvent event) {
+		final World world = event.getWorld();
+		if (world.isRemote) return;
+		BlockIndex.onBlockChange(world.provider.getDimension(), event.getPos(), event.getState());
+		CaveDetectionCache.onBlockChange(world.provider.getDimension(), event.getPos());
+		StandableColumns.onBlockChange(world.provider.getDimension(), event.getPos());
+	}
+
+	@SubscribeEvent
+	public static void onChunkUnload(final ChunkEvent.Unload event) {
+		final World world = event.getWorld();
+		if (world.isRemote) return;
+		BlockIndex.onChunkUnload(world.provider.getDimension(), event.getChunk().x, event.getChunk().z);
+		StandableColumns.onChunkUnload(world.provider.getDimension(), event.getChunk().x, event.getChunk().z);
+	}
+
+	@SubscribeEvent
+	public static void onWorldUnload(final WorldEvent.Unload event) {
+		final World world = event.getWorld();
+		if (world.isRemote) return;
+		BlockIndex.onWorldUnload(world.provider.getDimension());
+		StandableColumns.onWorldUnload(world.provider.getDimension());
+	}
+}
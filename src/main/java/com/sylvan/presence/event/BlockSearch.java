@@ -0,0 +1,319 @@
+package com.sylvan.presence.event;
+
+import com.sylvan.presence.Presence;
+import com.sylvan.presence.util.BlockCategory;
+import com.sylvan.presence.util.BlockIndex;
+import com.sylvan.presence.util.ChunkSnapshot;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class BlockSearch {
+	// Config
+	private static int blockSearchThreads = 2;	// The amount of worker threads scanning block snapshots for events such as open chest and open door
+
+	private static ExecutorService workers;
+	private static final Queue<Completion> completions = new ConcurrentLinkedQueue<>();
+	private static long startedSearches = 0;
+	private static long indexedSearches = 0;
+	private static long copiedSections = 0;
+	private static final AtomicLong completedSearches = new AtomicLong();
+	private static final AtomicLong scanNanos = new AtomicLong();
+
+	public static void loadConfig() {
+		try {
+			blockSearchThreads = Presence.config.getOrSetValue("blockSearchThreads", blockSearchThreads).getAsInt();
+		} catch (UnsupportedOperationException e) {
+			Presence.LOGGER.error("Configuration issue for BlockSearch.java. Wiping and using default values.", e);
+			Presence.config.wipe();
+			Presence.initConfig();
+		}
+	}
+
+	public static void start() {
+		workers = Executors.newFixedThreadPool(Math.max(1, blockSearchThreads), runnable -> {
+			final Thread thread = new Thread(runnable, "Presence Block Search");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public static void shutdown() {
+		if (workers != null) {
+			workers.shutdownNow();
+			try {
+				if (!workers.awaitTermination(1000, TimeUnit.MILLISECONDS)) {
+					Presence.LOGGER.error("Failed to await termination of block search workers.");
+				}
+			} catch (InterruptedException e) {
+				Presence.LOGGER.error("Failed to await termination of block search workers.", e);
+			}
+			workers = null;
+		}
+		completions.clear();
+	}
+
+	// Must be called on the server thread. The callback also runs on the server thread, with null if no block was found
+	public static void findNearestBlock(final Entity entity, final BlockCategory category, final int range, final Object owner, final Consumer<BlockPos> callback) {
+		// Too many searches are already waiting, so report nothing found and let the event back off
+		if (!OperationLimiter.submit(OperationLimiter.Operation.BLOCK_SEARCH, owner, () -> startSearch(entity, category, range, owner, callback))) {
+			callback.accept(null);
+		}
+	}
+
+	private static void startSearch(final Entity entity, final BlockCategory category, final int range, final Object owner, final Consumer<BlockPos> callback) {
+		// Server is stopping, so report nothing found rather than leaving the event chain hanging
+		final ExecutorService executor = workers;
+		if (executor == null) {
+			OperationLimiter.release(OperationLimiter.Operation.BLOCK_SEARCH);
+			callback.accept(null);
+			return;
+		}
+
+		final World world = entity.getEntityWorld();
+		final int dimension = world.provider.getDimension();
+		final SearchArea area = new SearchArea(entity.getPosition(), entity.getPositionVector(), range);
+		final List<Build> builds = new ArrayList<>();
+		final List<ChunkSnapshot> scans = new ArrayList<>();
+		++startedSearches;
+
+		for (int chunkX = area.minX >> 4; chunkX <= area.maxX >> 4; ++chunkX) {
+			for (int chunkZ = area.minZ >> 4; chunkZ <= area.maxZ >> 4; ++chunkZ) {
+				// Searches never load chunks
+				final Chunk chunk = world.getChunkProvider().getLoadedChunk(chunkX, chunkZ);
+				if (chunk == null) continue;
+
+				if (BlockIndex.blockIndexEnabled) {
+					final BlockIndex.ChunkIndex index = BlockIndex.getChunkIndex(dimension, chunkX, chunkZ);
+					if (index != null && !index.getEntries(category).isOverflowed()) {
+						offerIndexed(chunk, index.getEntries(category), category, area);
+						continue;
+					}
+					if (index == null && !BlockIndex.isBuilding(dimension, chunkX, chunkZ)) {
+						// Index the whole chunk off-thread so later searches can skip scanning it
+						final ChunkSnapshot snapshot = ChunkSnapshot.capture(chunk, 0, 15, BlockCategory::isIndexed);
+						copiedSections += snapshot.getCopiedSections();
+						builds.add(new Build(BlockIndex.beginBuild(dimension, chunkX, chunkZ), snapshot));
+						continue;
+					}
+				}
+
+				// Overflowed, already being indexed by another search, or indexing is disabled
+				final ChunkSnapshot snapshot = ChunkSnapshot.capture(chunk, area.minY >> 4, area.maxY >> 4, category::contains);
+				copiedSections += snapshot.getCopiedSections();
+				scans.add(snapshot);
+			}
+		}
+
+		// Every chunk was answered from the index, so there is nothing left for the workers
+		if (builds.isEmpty() && scans.isEmpty()) {
+			++indexedSearches;
+			completedSearches.incrementAndGet();
+			OperationLimiter.release(OperationLimiter.Operation.BLOCK_SEARCH);
+			callback.accept(area.getNearest());
+			return;
+		}
+
+		try {
+			executor.execute(() -> {
+				final long startNanos = System.nanoTime();
+				final SnapshotGrid grid = new SnapshotGrid(area);
+				for (final Build build : builds) {
+					BlockIndex.fill(build.index, build.snapshot);
+					grid.add(build.snapshot);
+				}
+				for (final ChunkSnapshot snapshot : scans) {
+					grid.add(snapshot);
+				}
+				scanShells(grid, category, area);
+				final BlockPos result = area.getNearest();
+				scanNanos.addAndGet(System.nanoTime() - startNanos);
+				completedSearches.incrementAndGet();
+				completions.add(new Completion(owner, () -> {
+					for (final Build build : builds) {
+						BlockIndex.finishBuild(dimension, build.index);
+					}
+					callback.accept(result);
+				}));
+			});
+		} catch (RejectedExecutionException e) {
+			OperationLimiter.release(OperationLimiter.Operation.BLOCK_SEARCH);
+			callback.accept(null);
+		}
+	}
+
+	public static void onServerTick() {
+		// Hand finished searches back to the main-thread queue so they share its fairness and tick budget
+		Completion completion;
+		while ((completion = completions.peek()) != null) {
+			if (!MainThreadQueue.submit(completion.owner, completion.task)) break;
+			completions.poll();
+			OperationLimiter.release(OperationLimiter.Operation.BLOCK_SEARCH);
+		}
+	}
+
+	private static void offerIndexed(final Chunk chunk, final BlockIndex.Entries entries, final BlockCategory category, final SearchArea area) {
+		final int originX = chunk.x << 4;
+		final int originZ = chunk.z << 4;
+		int x, y, z;
+		for (int i = 0; i < entries.size(); ++i) {
+			x = originX + entries.getX(i);
+			y = entries.getY(i);
+			z = originZ + entries.getZ(i);
+			if (!area.contains(x, y, z)) continue;
+
+			// Entries go stale when a block is set without notifying its neighbours, such as by /setblock.
+			// Checked before the distance so that stale entries farther than the nearest are pruned too
+			if (!category.contains(chunk.getBlockState(x, y, z).getBlock())) {
+				entries.removeAt(i--);
+				continue;
+			}
+			area.offer(x, y, z);
+		}
+	}
+
+	// Walks shells outward from the centre block, nearest first, and stops once no unscanned block could beat the nearest found.
+	// Blocks already offered from the index count too, so a nearby indexed chest can end the scan of other chunks early
+	private static void scanShells(final SnapshotGrid grid, final BlockCategory category, final SearchArea area) {
+		final int centerX = area.centerX, centerY = area.centerY, centerZ = area.centerZ;
+		int x, y, z, dzStep;
+		ChunkSnapshot snapshot;
+		for (int r = 0; r <= area.range; ++r) {
+			// The entity stands inside the centre block, so every block in this shell is at least r - 1 away
+			if (r > 0 && area.closestDistance <= (double) (r - 1) * (r - 1)) break;
+			for (int dy = -r; dy <= r; ++dy) {
+				y = centerY + dy;
+				if (y < area.minY || y > area.maxY || y < 0 || y > 255) continue;
+				for (int dx = -r; dx <= r; ++dx) {
+					x = centerX + dx;
+					if (x < area.minX || x > area.maxX) continue;
+					// Away from the x and y faces, only the two z faces belong to this shell
+					dzStep = (dy == -r || dy == r || dx == -r || dx == r) ? 1 : Math.max(1, 2 * r);
+					for (int dz = -r; dz <= r; dz += dzStep) {
+						z = centerZ + dz;
+						if (z < area.minZ || z > area.maxZ) continue;
+						snapshot = grid.get(x, z);
+						if (snapshot == null || snapshot.isSectionEmpty(y >> 4)) continue;
+						if (category.contains(snapshot.getBlockId(x & 15, y, z & 15))) area.offer(x, y, z);
+					}
+				}
+			}
+		}
+	}
+
+	public static String getStats() {
+		final long completed = completedSearches.get();
+		return String.format(
+			"Block searches: %d started, %d completed, %d answered from the index alone, %.3fms average worker time, %.1f sections copied per search, %d awaiting the server thread",
+			startedSearches,
+			completed,
+			indexedSearches,
+			scanNanos.get() / 1_000_000.0 / Math.max(1, completed - indexedSearches),
+			copiedSections / (double) Math.max(1, startedSearches),
+			completions.size()
+		);
+	}
+
+	// The cube searched around an entity and the nearest matching block found in it so far
+	private static class SearchArea {
+		private final int minX, minY, minZ, maxX, maxY, maxZ;
+		private final int centerX, centerY, centerZ, range;
+		private final double originX, originY, originZ;
+		private double closestDistance = Double.MAX_VALUE;
+		private int closestX, closestY, closestZ;
+		private boolean found = false;
+
+		private SearchArea(final BlockPos center, final Vec3d origin, final int range) {
+			minX = center.getX() - range;
+			minY = center.getY() - range;
+			minZ = center.getZ() - range;
+			maxX = center.getX() + range - 1;
+			maxY = center.getY() + range - 1;
+			maxZ = center.getZ() + range - 1;
+			centerX = center.getX();
+			centerY = center.getY();
+			centerZ = center.getZ();
+			this.range = range;
+			originX = origin.x;
+			originY = origin.y;
+			originZ = origin.z;
+		}
+
+		private boolean contains(final int x, final int y, final int z) {
+			return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+		}
+
+		private double getSquaredDistance(final int x, final int y, final int z) {
+			final double dx = x + 0.5 - originX, dy = y + 0.5 - originY, dz = z + 0.5 - originZ;
+			return dx * dx + dy * dy + dz * dz;
+		}
+
+		private void offer(final int x, final int y, final int z) {
+			final double distance = getSquaredDistance(x, y, z);
+			if (distance >= closestDistance) return;
+			closestDistance = distance;
+			closestX = x;
+			closestY = y;
+			closestZ = z;
+			found = true;
+		}
+
+		private BlockPos getNearest() {
+			return found ? new BlockPos(closestX, closestY, closestZ) : null;
+		}
+	}
+
+	// The snapshots of a search, looked up by block position. Chunks without one were answered from the index or are not loaded
+	private static class SnapshotGrid {
+		private final int minChunkX, minChunkZ, width;
+		private final ChunkSnapshot[] snapshots;
+
+		private SnapshotGrid(final SearchArea area) {
+			minChunkX = area.minX >> 4;
+			minChunkZ = area.minZ >> 4;
+			width = (area.maxZ >> 4) - minChunkZ + 1;
+			snapshots = new ChunkSnapshot[((area.maxX >> 4) - minChunkX + 1) * width];
+		}
+
+		private void add(final ChunkSnapshot snapshot) {
+			snapshots[(snapshot.getChunkX() - minChunkX) * width + (snapshot.getChunkZ() - minChunkZ)] = snapshot;
+		}
+
+		private ChunkSnapshot get(final int x, final int z) {
+			return snapshots[((x >> 4) - minChunkX) * width + ((z >> 4) - minChunkZ)];
+		}
+	}
+
+	private static class Build {
+		private final BlockIndex.ChunkIndex index;
+		private final ChunkSnapshot snapshot;
+
+		private Build(final BlockIndex.ChunkIndex index, final ChunkSnapshot snapshot) {
+			this.index = index;
+			this.snapshot = snapshot;
+		}
+	}
+
+	private static class Completion {
+		private final Object owner;
+		private final Runnable task;
+
+		private Completion(final Object owner, final Runnable task) {
+			this.owner = owner;
+			this.task = task;
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package com.sylvan.presence.event;
 
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.HauntSession;
 import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.util.Algorithms;
 import net.minecraft.entity.player.EntityPlayer;
@@ -31,17 +32,22 @@ public class ChatMessage {
 	}
 
 	public static void scheduleEvent(final EntityPlayer player) {
-		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
-		Events.scheduler.schedule(
-			() -> {
-				chatMessage(player, false, false);
-				scheduleEvent(player);
-			},
-			Algorithms.RANDOM.nextBetween(
+		final PlayerData playerData = PlayerData.getPlayerData(player);
+		final float hauntLevel = playerData.getHauntLevel();
+		playerData.getSession().getEventTimer("chatMessage", ChatMessage::newEventTask).arm(Events.toTicks(
+			PlayerData.getRandom(player).nextBetween(
 				Algorithms.divideByFloat(chatMessageDelayMin, hauntLevel),
 				Algorithms.divideByFloat(chatMessageDelayMax, hauntLevel)
 			), TimeUnit.SECONDS
-		);
+		));
+	}
+
+	private static Runnable newEventTask(final HauntSession session) {
+		final EntityPlayer player = session.getPlayer();
+		return () -> {
+			chatMessage(player, false, false);
+			scheduleEvent(player);
+		};
 	}
 
 	public static void chatMessage(final EntityPlayer player, final boolean overrideHauntLevel, final boolean overrideAloneConstraint) {
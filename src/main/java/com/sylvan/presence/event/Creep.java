@@ -1,9 +1,11 @@
 package com.sylvan.presence.event;
 
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.HauntSession;
 import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.entity.CreepingEntity;
 import com.sylvan.presence.util.Algorithms;
+import com.sylvan.presence.util.DimensionRegistry;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.server.network.ServerEntityPlayer;
 import net.minecraft.server.world.ServerWorld;
@@ -11,7 +13,6 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -29,7 +30,9 @@ public class Creep {
 	private static int creepReflexMs = 0;			// The time in milliseconds before Herobrine vanishes
 	private static double creepLookAtThreshold = 0.25;	// The threshold at which the player will be considered looking at Herobrine. -1.0 is directly oppsotie, 1.0 is directly towards
 
-	public static final List<CreepingEntity> creepingEntities = new ArrayList<>();
+	public static final DimensionRegistry<CreepingEntity> creepingEntities = new DimensionRegistry<>();
+
+	private static final RetryPolicy retryPolicy = RetryPolicy.forEvent("creep");
 
 	public static void loadConfig() {
 		try {
@@ -54,7 +57,7 @@ public class Creep {
 		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
 		scheduleEventWithDelay(
 			player,
-			Algorithms.RANDOM.nextBetween(
+			PlayerData.getRandom(player).nextBetween(
 				Algorithms.divideByFloat(creepDelayMax, hauntLevel),
 				Algorithms.divideByFloat(creepDelayMax, hauntLevel)
 			)
@@ -62,39 +65,58 @@ public class Creep {
 	}
 
 	public static void scheduleEventWithDelay(final EntityPlayer player, final int delay) {
-		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
-		Events.scheduler.schedule(
-			() -> {
-				if (creep(player, false)) {
-					scheduleEventWithDelay(
-						player,
-						Algorithms.RANDOM.nextBetween(
-							Algorithms.divideByFloat(creepDelayMin, hauntLevel),
-							Algorithms.divideByFloat(creepDelayMax, hauntLevel)
-						)
-					);
-				} else {
-					// Retry if it is a bad time
-					scheduleEventWithDelay(player, creepRetryDelay);
-				}
-			},
-			delay, TimeUnit.SECONDS
-		);
+		PlayerData.getPlayerData(player).getSession().getEventTimer("creep", Creep::newEventTask).arm(Events.toTicks(delay, TimeUnit.SECONDS));
+	}
+
+	private static Runnable newEventTask(final HauntSession session) {
+		final EntityPlayer player = session.getPlayer();
+		final PlayerData playerData = PlayerData.getPlayerData(player);
+		final Runnable placementTask = () -> {
+			final float hauntLevel = playerData.getHauntLevel();
+			if (creep(player, false)) {
+				retryPolicy.onSuccess(player);
+				scheduleEventWithDelay(
+					player,
+					PlayerData.getRandom(player).nextBetween(
+						Algorithms.divideByFloat(creepDelayMin, hauntLevel),
+						Algorithms.divideByFloat(creepDelayMax, hauntLevel)
+					)
+				);
+			} else {
+				// Retry if it is a bad time, backing off while it keeps failing
+				scheduleEventWithDelay(player, retryPolicy.getRetryDelay(player, creepRetryDelay));
+			}
+		};
+		return () -> {
+			// Spawn placement walks and raycasts many blocks, so limit how many players do it at once
+			if (!OperationLimiter.submit(OperationLimiter.Operation.SPAWN_PLACEMENT, player.getUuid(), placementTask)) {
+				// Too many players are already waiting, so treat it like any other bad time
+				scheduleEventWithDelay(player, retryPolicy.getRetryDelay(player, creepRetryDelay));
+			}
+		};
 	}
 
 	public static void onShutdown() {
-		for (final CreepingEntity herobrine : creepingEntities) {
-			herobrine.remove();
-		}
+		creepingEntities.forEach(CreepingEntity::remove);
 		creepingEntities.clear();
 	}
 
+	public static void onSessionEnd(final EntityPlayer player) {
+		creepingEntities.removeIf(herobrine -> {
+			if (herobrine.getTrackedPlayer() != player) return false;
+			herobrine.remove();
+			return true;
+		});
+	}
+
 	public static void onWorldTick(final ServerWorld world) {
-		if (creepingEntities.isEmpty()) return;
+		// Only walk the Herobrines summoned in this dimension
+		final int dimension = world.provider.getDimension();
+		if (creepingEntities.isEmpty(dimension)) return;
 		final List<ServerEntityPlayer> players = world.getPlayers();
 		if (players.isEmpty()) return;
 
-		Iterator<CreepingEntity> it = creepingEntities.iterator();
+		final Iterator<CreepingEntity> it = creepingEntities.iterator(dimension);
 		CreepingEntity herobrine;
 		while (it.hasNext()) {
 			herobrine = it.next();
@@ -131,7 +153,7 @@ public class Creep {
 		Vec3d spawnPos = Algorithms.getPosOffsetInDirection(
 			player.getPos(),
 			player.getRotationVector().negate(),
-			Algorithms.RANDOM.nextBetween(creepDistanceMin, creepDistanceMax)
+			PlayerData.getRandom(player).nextBetween(creepDistanceMin, creepDistanceMax)
 		);
 		final BlockPos spawnBlockPos = Algorithms.getNearestStandableBlockPos(
 			player.getWorld(),
@@ -150,7 +172,7 @@ public class Creep {
 		herobrine.setPosition(spawnPos);
 		herobrine.lookAt(player);
 		herobrine.summon();
-		creepingEntities.add(herobrine);
+		creepingEntities.add(world.provider.getDimension(), herobrine);
 
 		return true;
 	}
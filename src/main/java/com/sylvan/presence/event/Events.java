@@ -2,39 +2,64 @@ package com.sylvan.presence.event;
 
 import com.sylvan.presence.Presence;
 import com.sylvan.presence.data.PlayerData;
+import com.sylvan.presence.entity.HerobrineEntity;
+import com.sylvan.presence.util.Algorithms;
+import com.sylvan.presence.util.BlockIndex;
+import com.sylvan.presence.util.CaveDetectionCache;
+import com.sylvan.presence.util.EnvironmentProbe;
+import com.sylvan.presence.util.LineOfSight;
+import com.sylvan.presence.util.SectionFilter;
+import com.sylvan.presence.util.SpawnCandidatePool;
+import com.sylvan.presence.util.StandableColumns;
+import com.sylvan.presence.util.TimerWheel;
+import com.sylvan.presence.util.VoxelRaycast;
+import net.fabricmc.fabric.api.entity.event.v1.ServerEntityWorldChangeEvents;
+import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.event.player.UseBlockCallback;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.util.ActionResult;
+import net.minecraftforge.common.MinecraftForge;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 public class Events {
-	public static ScheduledExecutorService scheduler;
+	public static final TimerWheel timers = new TimerWheel(Events::dispatch);
 
 	public static void initEvents() {
 		AmbientSounds.initEvent();
 		FlowerGift.initEvent();
+		Freeze.initEvent();
 		NearbySounds.initEvent();
 		OpenChest.initEvent();
 		OpenDoor.initEvent();
+		SubtitleWarning.initEvent();
 		TrampleCrops.initEvent();
+
+		// Block categories may have changed, so indexed positions can no longer be trusted
+		BlockIndex.clear();
 	}
 
 	public static void registerEvents() {
 		initEvents();
 
-		// Start/stop scheduler with server
+		// Start/stop timers with server
 		ServerLifecycleEvents.SERVER_STARTING.register((serverStarting) -> {
-			scheduler = Executors.newScheduledThreadPool(8);
+			BlockSearch.start();
 			PlayerData.setInstance(serverStarting);
 		});
 		ServerLifecycleEvents.SERVER_STOPPING.register((serverStopping) -> {
-			scheduler.shutdown();
+			PlayerData.cancelSessions();
+			timers.clear();
+			BlockSearch.shutdown();
+			BlockIndex.clear();
+			StandableColumns.clear();
+			OperationLimiter.clear();
+			MainThreadQueue.clear();
 
 			Creep.onShutdown();
 			Stalk.onShutdown();
@@ -43,26 +68,24 @@ public class Events {
 				Presence.config.wipe();
 				Presence.initConfig();
 			}
-
-			try {
-				if (!scheduler.awaitTermination(1000, TimeUnit.MILLISECONDS)) {
-					Presence.LOGGER.error("Failed to await termination of event scheduler.");
-				}
-			} catch (InterruptedException e) {
-				Presence.LOGGER.error("Failed to await termination of event scheduler.", e);
-			}
 		});
 
 		// Schedule player join events
 		ServerPlayConnectionEvents.JOIN.register((serverPlayNetworkHandler, packetSender, server)
 				-> PlayerData.addPlayerData(serverPlayNetworkHandler.getPlayer()).startEvents());
 
-		// Attempt to remove torches when player disconnects
+		// Cancel every pending timer and tracker when player disconnects
 		ServerPlayConnectionEvents.DISCONNECT.register((serverPlayNetworkHandler, server) -> {
 			final PlayerEntity player = serverPlayNetworkHandler.getPlayer();
 			PlayerData.getPlayerData(player).remove();
 		});
 
+		// Restart the haunt session when the player changes dimension or respawns as a new entity
+		ServerEntityWorldChangeEvents.AFTER_PLAYER_CHANGE_WORLD.register((player, origin, destination)
+				-> PlayerData.getPlayerData(player).restartSession(player));
+		ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive)
+				-> PlayerData.getPlayerData(newPlayer).restartSession(newPlayer));
+
 		// Add block use/place tracker for extinguish torches event
 		UseBlockCallback.EVENT.register((player, world, hand, hitResult) -> {
 			if (!world.isClient()) {
@@ -72,13 +95,77 @@ public class Events {
 			return ActionResult.PASS;
 		});
 
+		// Keep the block index in step with block changes and unloads
+		MinecraftForge.EVENT_BUS.register(BlockChangeEvents.class);
+
+		// Advance event timers once per server tick
+		ServerTickEvents.START_SERVER_TICK.register(server -> {
+			TickBudget.onServerTick();
+			final long startNanos = TickBudget.start();
+			LineOfSight.onServerTick();
+			BlockSearch.onServerTick();
+			OperationLimiter.onServerTick();
+			timers.tick();
+			// Find spawn positions ahead of time with whatever the events left of their own budget
+			if (!TickBudget.isExhausted()) PlayerData.fillSpawnPools();
+			TickBudget.stop(startNanos);
+		});
+
+		// Run queued world tasks once per server tick, after every world has ticked, so the per-tick limit does not grow with the number of worlds
+		ServerTickEvents.END_SERVER_TICK.register(server -> MainThreadQueue.onServerTick());
+
 		// Add server tick events for Herobrine
 		ServerTickEvents.END_WORLD_TICK.register(world -> {
 			if (!world.isClient()) {
+				final long startNanos = TickBudget.start();
 				Creep.onWorldTick(world);
-				Freeze.onWorldTick();
+				Freeze.onWorldTick(world);
 				Stalk.onWorldTick(world);
+				TickBudget.stop(startNanos);
 			}
 		});
 	}
+
+	public static long toTicks(final long delay, final TimeUnit unit) {
+		// Round up so that sub-tick delays still wait for the next tick
+		return Math.max(1, (unit.toMillis(delay) + 49) / 50);
+	}
+
+	// Timers only decide when a task fires; the task itself runs from the main-thread queue
+	public static TimerWheel.Timer scheduleOnTick(final Runnable task, final long delay, final TimeUnit unit) {
+		final TimerWheel.Timer timer = timers.newTimer(task);
+		timer.arm(toTicks(delay, unit));
+		return timer;
+	}
+
+	private static void dispatch(final TimerWheel.Timer timer) {
+		// Queue is full, so try again shortly instead of dropping the event chain
+		if (!MainThreadQueue.submit(timer.getOwner(), timer.getTask())) timer.arm(toTicks(MainThreadQueue.mainThreadQueueRetryDelay, TimeUnit.SECONDS));
+	}
+
+	public static List<String> getPerformanceStats() {
+		final List<String> stats = new ArrayList<>();
+		stats.add("Event timers: " + timers.getArmedTimers() + " armed at tick " + timers.getCurrentTick() + " across " + PlayerData.getActiveSessionCount() + " haunt sessions");
+		stats.add(
+			"Active events: " + Creep.creepingEntities.size() + " creeping, " + Stalk.stalkingEntities.size() + " stalking, " +
+			Freeze.getFrozenPlayerCount() + " frozen, " + FlickerDoor.trackedPlayers.size() + " tracked for door flickers"
+		);
+		stats.add(MainThreadQueue.getStats());
+		stats.add(TickBudget.getStats());
+		stats.add(BlockSearch.getStats());
+		stats.add(BlockIndex.getStats());
+		stats.add(SectionFilter.getStats());
+		stats.add(CaveDetectionCache.getStats());
+		stats.add(EnvironmentProbe.getStats());
+		stats.add(Algorithms.getCaveDetectionStats());
+		stats.add(VoxelRaycast.getStats());
+		stats.add(LineOfSight.getStats());
+		stats.add(Algorithms.getLookAtStats());
+		stats.add(HerobrineEntity.getSightStats());
+		stats.add(StandableColumns.getStats());
+		stats.add(SpawnCandidatePool.getStats());
+		stats.addAll(OperationLimiter.getStats());
+		stats.addAll(RetryPolicy.getStats());
+		return stats;
+	}
 }
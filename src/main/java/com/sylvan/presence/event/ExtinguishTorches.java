@@ -1,6 +1,7 @@
 package com.sylvan.presence.event;
 
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.HauntSession;
 import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.util.Algorithms;
 import net.minecraft.block.Block;
@@ -9,15 +10,15 @@ import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.Items;
 import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.world.LightType;
 import net.minecraft.world.World;
 import net.minecraft.world.dimension.DimensionType;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 public class ExtinguishTorches {
-	public static Map<UUID, Map.Entry<DimensionType, Stack<BlockPos>>> torchPlacementMap = new HashMap<>();
+	public static Map<UUID, Map.Entry<DimensionType, Stack<BlockPos>>> torchPlacementMap = new ConcurrentHashMap<>();
 
 	// Config
 	public static boolean extinguishTorchesEnabled = true;				// Whether the extinguish torches event is active
@@ -53,20 +54,24 @@ public class ExtinguishTorches {
 	}
 
 	public static void scheduleTracking(final PlayerEntity player) {
-		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
-		Events.scheduler.schedule(
-			() -> {
-				if (player.isRemoved() || torchPlacementMap.containsKey(player.getUuid())) return;
-				if (!startTrackingTorches(player, false)) {
-					scheduleTracking(player);
-				}
-			},
-			Algorithms.RANDOM.nextBetween(
+		final PlayerData playerData = PlayerData.getPlayerData(player);
+		final float hauntLevel = playerData.getHauntLevel();
+		playerData.getSession().getEventTimer("extinguishTorchesTrack", ExtinguishTorches::newTrackingTask).arm(Events.toTicks(
+			PlayerData.getRandom(player).nextBetween(
 				Algorithms.divideByFloat(extinguishTorchesTrackDelayMin, hauntLevel),
 				Algorithms.divideByFloat(extinguishTorchesTrackDelayMax, hauntLevel)
-			),
-			TimeUnit.SECONDS
-		);
+			), TimeUnit.SECONDS
+		));
+	}
+
+	private static Runnable newTrackingTask(final HauntSession session) {
+		final PlayerEntity player = session.getPlayer();
+		return () -> {
+			if (player.isRemoved() || torchPlacementMap.containsKey(player.getUuid())) return;
+			if (!startTrackingTorches(player, false)) {
+				scheduleTracking(player);
+			}
+		};
 	}
 
 	public static boolean startTrackingTorches(final PlayerEntity player, final boolean overrideHauntLevel) {
@@ -83,7 +88,12 @@ public class ExtinguishTorches {
 	}
 
 	public static void scheduleExtinguish(final PlayerEntity player) {
-		Events.scheduler.schedule(() -> {
+		PlayerData.getPlayerData(player).getSession().getEventTimer("extinguishTorchesExtinguish", ExtinguishTorches::newExtinguishTask).arm(Events.toTicks(extinguishTorchesExtinguishRetryDelay, TimeUnit.SECONDS));
+	}
+
+	private static Runnable newExtinguishTask(final HauntSession session) {
+		final PlayerEntity player = session.getPlayer();
+		return () -> {
 			if (player.isRemoved()) {
 				extinguishTrackedTorches(player);
 				return;
@@ -95,7 +105,11 @@ public class ExtinguishTorches {
 			} else {
 				scheduleTracking(player);
 			}
-		}, extinguishTorchesExtinguishRetryDelay, TimeUnit.SECONDS);
+		};
+	}
+
+	public static void onSessionEnd(final PlayerEntity player) {
+		torchPlacementMap.remove(player.getUuid());
 	}
 
 	public static void onUseBlock(final PlayerEntity player, final World world, final BlockHitResult hitResult) {
@@ -106,7 +120,7 @@ public class ExtinguishTorches {
 			(player.getMainHandStack().getItem() != Items.TORCH && player.getOffHandStack().getItem() != Items.TORCH) ||	// Player must be holding a torch
 			(
 				extinguishTorchesMaxSkyLightLevelConstraint &&
-				world.getLightLevel(LightType.SKY, torchPos) > extinguishTorchesSkyLightLevelMax	// Torch must be underground
+				Algorithms.isExposedToSky(world, torchPos, extinguishTorchesSkyLightLevelMax)	// Torch must be underground
 			)
 		) return;
 
@@ -1,6 +1,7 @@
 package com.sylvan.presence.event;
 
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.HauntSession;
 import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.util.Algorithms;
 import net.minecraft.block.BlockDoor;
@@ -12,9 +13,9 @@ import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 public class FlickerDoor {
@@ -31,7 +32,7 @@ public class FlickerDoor {
 	private static int flickerDoorFlickerIntervalMax = 120;		// The maximum interval between flickering the door in milliseconds
 	private static boolean flickerDoorClosedConstraint = true;	// Whether the door should start flickering only when closing the door
 
-	public static final List<UUID> trackedPlayers = new ArrayList<>();
+	public static final Set<UUID> trackedPlayers = ConcurrentHashMap.newKeySet();
 
 	public static void loadConfig() {
 		try {
@@ -54,16 +55,19 @@ public class FlickerDoor {
 	}
 
 	public static void scheduleTracking(final EntityPlayer player) {
-		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
-		Events.scheduler.schedule(
-			() -> {
-				trackPlayer(player, false);
-			},
-			Algorithms.RANDOM.nextBetween(
+		final PlayerData playerData = PlayerData.getPlayerData(player);
+		final float hauntLevel = playerData.getHauntLevel();
+		playerData.getSession().getEventTimer("flickerDoor", FlickerDoor::newEventTask).arm(Events.toTicks(
+			PlayerData.getRandom(player).nextBetween(
 				Algorithms.divideByFloat(flickerDoorDelayMin, hauntLevel),
 				Algorithms.divideByFloat(flickerDoorDelayMax, hauntLevel)
 			), TimeUnit.SECONDS
-		);
+		));
+	}
+
+	private static Runnable newEventTask(final HauntSession session) {
+		final EntityPlayer player = session.getPlayer();
+		return () -> trackPlayer(player, false);
 	}
 
 	public static void trackPlayer(final EntityPlayer player, final boolean overrideHauntLevel) {
@@ -72,7 +76,11 @@ public class FlickerDoor {
 			if (hauntLevel < flickerDoorHauntLevelMin) return; // Reset event as if it passed
 		}
 
-		if (!trackedPlayers.contains(player.getUniqueID())) trackedPlayers.add(player.getUniqueID());
+		trackedPlayers.add(player.getUniqueID());
+	}
+
+	public static void onSessionEnd(final EntityPlayer player) {
+		trackedPlayers.remove(player.getUniqueID());
 	}
 
 	public static void onUseBlock(final EntityPlayer player, final World world, final BlockHitResult hitResult) {
@@ -80,17 +88,17 @@ public class FlickerDoor {
 
 		final BlockPos doorPos = hitResult.getBlockPos();
 		if (
-			!Algorithms.isBlockOfBlockTypes(world.getBlockState(doorPos).getBlock(), OpenDoor.doorBlocks) ||	// Must be a door
+			!OpenDoor.doorBlocks.contains(world.getBlockState(doorPos).getBlock()) ||	// Must be a door
 			(flickerDoorClosedConstraint && !world.getBlockState(doorPos).getValue(BlockDoor.OPEN))			// Must be closing door
 		) return;
 
-		if (trackedPlayers.contains(player.getUniqueID())) {
-			int delay = Algorithms.RANDOM.nextBetween(flickerDoorFlickerDelayMin, flickerDoorFlickerDelayMax);
-			for (int flickerCount = Algorithms.RANDOM.nextBetween(flickerDoorFlickerMin, flickerDoorFlickerMax); flickerCount > 0; --flickerCount) {
-				Events.scheduler.schedule(() -> flickerDoor(player, doorPos), delay, TimeUnit.MILLISECONDS);
-				delay += Algorithms.RANDOM.nextBetween(flickerDoorFlickerIntervalMin, flickerDoorFlickerIntervalMax);
+		if (trackedPlayers.remove(player.getUniqueID())) {
+			final HauntSession session = PlayerData.getPlayerData(player).getSession();
+			int delay = PlayerData.getRandom(player).nextBetween(flickerDoorFlickerDelayMin, flickerDoorFlickerDelayMax);
+			for (int flickerCount = PlayerData.getRandom(player).nextBetween(flickerDoorFlickerMin, flickerDoorFlickerMax); flickerCount > 0; --flickerCount) {
+				session.schedule(() -> flickerDoor(player, doorPos), delay, TimeUnit.MILLISECONDS);
+				delay += PlayerData.getRandom(player).nextBetween(flickerDoorFlickerIntervalMin, flickerDoorFlickerIntervalMax);
 			}
-			trackedPlayers.remove(player.getUniqueID());
 		}
 	}
 
@@ -1,10 +1,11 @@
 package com.sylvan.presence.event;
 
-import com.google.common.base.Predicate;
+import com.google.gson.JsonArray;
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.HauntSession;
 import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.util.Algorithms;
-import net.minecraft.block.Block;
+import com.sylvan.presence.util.BlockCategory;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.DoorBlock;
@@ -15,10 +16,9 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
 
-import javax.annotation.Nullable;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class FlowerGift {
 	// Config
@@ -29,8 +29,11 @@ public class FlowerGift {
 	private static int flowerGiftRetryDelay = 60;			// The delay between retrying to place flower if the previous attempt failed
 	private static int flowerGiftSearchRadius = 32;			// The search radius of finding doors to plant a flower at. Higher values have exponential lag during the tick performing the search
 	private static boolean flowerGiftNotSeenConstraint = true;	// Whether the constraint for making the flower plant only when not seen is active
+	private static JsonArray flowerGiftPlantableBlocks = BlockCategory.toJsonArray("minecraft:grass", "minecraft:dirt", "minecraft:mycelium");	// The block IDs a flower may be planted on. * matches anything
 
-	public static final ArrayList<Block> plantableBlocks = new ArrayList<>();
+	public static final BlockCategory plantableBlocks = new BlockCategory("plantable", false);
+
+	private static final RetryPolicy retryPolicy = RetryPolicy.forEvent("flowerGift");
 
 	public static void loadConfig() {
 		try {
@@ -41,7 +44,8 @@ public class FlowerGift {
 			flowerGiftRetryDelay = Presence.config.getOrSetValue("flowerGiftRetryDelay", flowerGiftRetryDelay).getAsInt();
 			flowerGiftSearchRadius = Presence.config.getOrSetValue("flowerGiftSearchRadius", flowerGiftSearchRadius).getAsInt();
 			flowerGiftNotSeenConstraint = Presence.config.getOrSetValue("flowerGiftNotSeenConstraint", flowerGiftNotSeenConstraint).getAsBoolean();
-		} catch (UnsupportedOperationException e) {
+			flowerGiftPlantableBlocks = Presence.config.getOrSetValue("flowerGiftPlantableBlocks", flowerGiftPlantableBlocks).getAsJsonArray();
+		} catch (UnsupportedOperationException | IllegalStateException e) {
 			Presence.LOGGER.error("Configuration issue for FlowerGift.java. Wiping and using default values.", e);
 			Presence.config.wipe();
 			Presence.initConfig();
@@ -49,16 +53,14 @@ public class FlowerGift {
 	}
 
 	public static void initEvent() {
-		plantableBlocks.add(Blocks.GRASS);
-		plantableBlocks.add(Blocks.DIRT);
-		plantableBlocks.add(Blocks.MYCELIUM);
+		plantableBlocks.compile(flowerGiftPlantableBlocks);
 	}
 
 	public static void scheduleEvent(final EntityPlayer player) {
 		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
 		scheduleEventWithDelay(
 			player,
-			Algorithms.RANDOM.nextBetween(
+			PlayerData.getRandom(player).nextBetween(
 				Algorithms.divideByFloat(flowerGiftDelayMin, hauntLevel),
 				Algorithms.divideByFloat(flowerGiftDelayMax, hauntLevel)
 			)
@@ -66,24 +68,31 @@ public class FlowerGift {
 	}
 
 	public static void scheduleEventWithDelay(final EntityPlayer player, final int delay) {
-		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
-		Events.scheduler.schedule(
-			() -> {
-				if (flowerGift(player, false)) {
-					scheduleEventWithDelay(
-						player,
-						Algorithms.RANDOM.nextBetween(
-							Algorithms.divideByFloat(flowerGiftDelayMin, hauntLevel),
-							Algorithms.divideByFloat(flowerGiftDelayMax, hauntLevel)
-						)
-					);
-				} else {
-					// Retry if it is a bad time
-					scheduleEventWithDelay(player, flowerGiftRetryDelay);
-				}
-			},
-			delay, TimeUnit.SECONDS
-		);
+		PlayerData.getPlayerData(player).getSession().getEventTimer("flowerGift", FlowerGift::newEventTask).arm(Events.toTicks(delay, TimeUnit.SECONDS));
+	}
+
+	private static Runnable newEventTask(final HauntSession session) {
+		final EntityPlayer player = session.getPlayer();
+		final PlayerData playerData = PlayerData.getPlayerData(player);
+		final Consumer<BlockPos> onSearched = nearestDoorPos -> {
+			if (session.isCancelled()) return;
+			if (flowerGift(player, nearestDoorPos)) {
+				retryPolicy.onSuccess(player);
+				scheduleEvent(player);
+			} else {
+				// Retry if it is a bad time, backing off while it keeps failing
+				scheduleEventWithDelay(player, retryPolicy.getRetryDelay(player, flowerGiftRetryDelay));
+			}
+		};
+		return () -> {
+			if (playerData.getHauntLevel() < flowerGiftHauntLevelMin) {
+				scheduleEvent(player); // Reset event as if it passed
+				return;
+			}
+
+			// Search a snapshot of the nearby chunks off the server thread, then finish the event back on it
+			BlockSearch.findNearestBlock(player, OpenDoor.doorBlocks, flowerGiftSearchRadius, player.getUuid(), onSearched);
+		};
 	}
 
 	public static boolean flowerGift(final EntityPlayer player, final boolean overrideHauntLevel) {
@@ -92,12 +101,15 @@ public class FlowerGift {
 			if (hauntLevel < flowerGiftHauntLevelMin) return true; // Reset event as if it passed
 		}
 
-		// Get nearest door position
-		BlockPos nearestDoorPos = Algorithms.getNearestBlockToEntity(player, OpenDoor.doorBlocks, flowerGiftSearchRadius);
-		if (nearestDoorPos == null) return false;
+		return flowerGift(player, Algorithms.getNearestBlockToEntity(player, OpenDoor.doorBlocks, flowerGiftSearchRadius));
+	}
 
-		// Make sure to select the bottom half of the door
+	public static boolean flowerGift(final EntityPlayer player, BlockPos nearestDoorPos) {
+		// The block may have changed since it was found
 		final World world = player.getEntityWorld();
+		if (nearestDoorPos == null || !OpenDoor.doorBlocks.contains(world.getBlockState(nearestDoorPos).getBlock())) return false;
+
+		// Make sure to select the bottom half of the door
 		final BlockState currentBlockState = world.getBlockState(nearestDoorPos);
 		if (currentBlockState.get(DoorBlock.HALF) == DoubleBlockHalf.UPPER) nearestDoorPos = nearestDoorPos.down(2);
 		else nearestDoorPos = nearestDoorPos.down();
@@ -105,22 +117,22 @@ public class FlowerGift {
 		// Get grass block 1 distance in any X/Z block away
 		BlockPos plantablePos = nearestDoorPos.offset(Direction.NORTH);
 		if (!(
-			Algorithms.isBlockOfBlockTypes(world.getBlockState(plantablePos).getBlock(), plantableBlocks) &&
+			plantableBlocks.contains(world.getBlockState(plantablePos).getBlock()) &&
 			Algorithms.couldPlayerStandOnBlock(world, plantablePos)
 		)) {
 			plantablePos = nearestDoorPos.offset(Direction.SOUTH);
 			if (!(
-				Algorithms.isBlockOfBlockTypes(world.getBlockState(plantablePos).getBlock(), plantableBlocks) &&
+				plantableBlocks.contains(world.getBlockState(plantablePos).getBlock()) &&
 				Algorithms.couldPlayerStandOnBlock(world, plantablePos)
 			)) {
 				plantablePos = nearestDoorPos.offset(Direction.EAST);
 				if (!(
-					Algorithms.isBlockOfBlockTypes(world.getBlockState(plantablePos).getBlock(), plantableBlocks) &&
+					plantableBlocks.contains(world.getBlockState(plantablePos).getBlock()) &&
 					Algorithms.couldPlayerStandOnBlock(world, plantablePos)
 				)) {
 					plantablePos = nearestDoorPos.offset(Direction.WEST);
 					if (!(
-						Algorithms.isBlockOfBlockTypes(world.getBlockState(plantablePos).getBlock(), plantableBlocks) &&
+						plantableBlocks.contains(world.getBlockState(plantablePos).getBlock()) &&
 						Algorithms.couldPlayerStandOnBlock(world, plantablePos)
 					)) {
 						return false;
@@ -131,12 +143,7 @@ public class FlowerGift {
 		plantablePos = plantablePos.up();
 
 		// Players must not see flower get placed
-		final List<? extends EntityPlayer> players = world.getPlayers(EntityPlayer.class, new Predicate<EntityPlayer>() {
-			@Override
-			public boolean apply(@Nullable EntityPlayer input) {
-				return true;
-			}
-		});
+		final List<? extends EntityPlayer> players = world.playerEntities;
 		if (flowerGiftNotSeenConstraint && Algorithms.couldBlockBeSeenByPlayers(players, plantablePos)) return false;
 
 		// Plant poppy
@@ -1,6 +1,7 @@
 package com.sylvan.presence.event;
 
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.HauntSession;
 import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.util.Algorithms;
 import net.minecraft.block.state.IBlockState;
@@ -46,17 +47,22 @@ public class Footsteps {
 	}
 
 	public static void scheduleEvent(final EntityPlayer player) {
-		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
-		Events.scheduler.schedule(
-			() -> {
-				generateFootsteps(player, Math.max(1, Algorithms.RANDOM.nextBetween(footstepsStepsMin, footstepsStepsMax)), false);
-				scheduleEvent(player);
-			},
-			Algorithms.RANDOM.nextBetween(
+		final PlayerData playerData = PlayerData.getPlayerData(player);
+		final float hauntLevel = playerData.getHauntLevel();
+		playerData.getSession().getEventTimer("footsteps", Footsteps::newEventTask).arm(Events.toTicks(
+			PlayerData.getRandom(player).nextBetween(
 				Algorithms.divideByFloat(footstepsDelayMin, hauntLevel),
 				Algorithms.divideByFloat(footstepsDelayMax, hauntLevel)
 			), TimeUnit.SECONDS
-		);
+		));
+	}
+
+	private static Runnable newEventTask(final HauntSession session) {
+		final EntityPlayer player = session.getPlayer();
+		return () -> {
+			generateFootsteps(player, Math.max(1, PlayerData.getRandom(player).nextBetween(footstepsStepsMin, footstepsStepsMax)), false);
+			scheduleEvent(player);
+		};
 	}
 
 	public static void generateFootsteps(final EntityPlayer player, final int footstepCount, final boolean overrideHauntLevel) {
@@ -70,19 +76,20 @@ public class Footsteps {
 		final int msPerStep = (
 			(footstepCount > 2) ?
 			Math.min(
-				(footstepsReflexMs + Algorithms.RANDOM.nextBetween(0, footstepsMaxReflexVariance)) / footstepCount,
+				(footstepsReflexMs + PlayerData.getRandom(player).nextBetween(0, footstepsMaxReflexVariance)) / footstepCount,
 				footstepsMsPerStepMax
-			) : (footstepsReflexMs + Algorithms.RANDOM.nextBetween(0, footstepsMaxReflexVariance)) / footstepCount
+			) : (footstepsReflexMs + PlayerData.getRandom(player).nextBetween(0, footstepsMaxReflexVariance)) / footstepCount
 		);
 
 		final BlockPos blockPos = player.getPosition().down();
 		final EnumFacing behindPlayer = player.getHorizontalFacing().getOpposite();
+		final HauntSession session = PlayerData.getPlayerData(player).getSession();
 		int delay;
 		// Play footstep on each block approaching the player
 		for (int distance = footstepCount; distance > 0; --distance) {
-			delay = (footstepCount - distance) * msPerStep + Algorithms.RANDOM.nextBetween(0, footstepsStepVarianceMax);
+			delay = (footstepCount - distance) * msPerStep + PlayerData.getRandom(player).nextBetween(0, footstepsStepVarianceMax);
 			final int blockDistance = distance;
-			Events.scheduler.schedule(() -> playFootstep(player, blockPos.offset(behindPlayer, blockDistance)), delay, TimeUnit.MILLISECONDS);
+			session.schedule(() -> playFootstep(player, blockPos.offset(behindPlayer, blockDistance)), delay, TimeUnit.MILLISECONDS);
 		}
 	}
 
@@ -1,17 +1,18 @@
 package com.sylvan.presence.event;
 
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.HauntSession;
 import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.util.Algorithms;
+import com.sylvan.presence.util.DimensionRegistry;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.SoundCategory;
 import net.minecraft.util.SoundEvent;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
 
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 public class Freeze {
@@ -22,7 +23,8 @@ public class Freeze {
 	private static int freezeDelayMax = 60 * 60 * 6;	// The maximum delay between freeze events
 	private static int freezeTimeTicks = 20 * 10;		// The number of ticks to freeze the player for
 
-	private static final List<FreezeData> freezeDataList = new ArrayList<>();
+	private static final DimensionRegistry<FreezeData> freezeDataList = new DimensionRegistry<>();
+	private static SoundEvent freezeSound;	// Resolved in initEvent instead of on every freeze
 
 	public static void loadConfig() {
 		try {
@@ -38,22 +40,33 @@ public class Freeze {
 		}
 	}
 
+	public static void initEvent() {
+		freezeSound = SoundEvent.REGISTRY.getObject(new ResourceLocation("presence", "event.freeze"));
+		if (freezeSound == null) Presence.LOGGER.warn("Could not find sound \"presence:event.freeze\" in Freeze.java.");
+	}
+
 	public static void scheduleEvent(final EntityPlayer player) {
-		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
-		Events.scheduler.schedule(
-			() -> {
-				freeze(player, false);
-				scheduleEvent(player);
-			},
-			Algorithms.RANDOM.nextBetween(
+		final PlayerData playerData = PlayerData.getPlayerData(player);
+		final float hauntLevel = playerData.getHauntLevel();
+		playerData.getSession().getEventTimer("freeze", Freeze::newEventTask).arm(Events.toTicks(
+			PlayerData.getRandom(player).nextBetween(
 				Algorithms.divideByFloat(freezeDelayMin, hauntLevel),
 				Algorithms.divideByFloat(freezeDelayMax, hauntLevel)
 			), TimeUnit.SECONDS
-		);
+		));
 	}
 
-	public static void onWorldTick() {
-		final Iterator<FreezeData> it = freezeDataList.iterator();
+	private static Runnable newEventTask(final HauntSession session) {
+		final EntityPlayer player = session.getPlayer();
+		return () -> {
+			freeze(player, false);
+			scheduleEvent(player);
+		};
+	}
+
+	public static void onWorldTick(final World world) {
+		// Only walk the players frozen in this dimension
+		final Iterator<FreezeData> it = freezeDataList.iterator(world.provider.getDimension());
 		FreezeData freezeData;
 		while (it.hasNext()) {
 			freezeData = it.next();
@@ -71,11 +84,18 @@ public class Freeze {
 		}
 
 		// Track player for freeze
-		freezeDataList.add(new FreezeData(player));
+		freezeDataList.add(player.dimension, new FreezeData(player));
 
 		// Play freeze sound
-		final SoundEvent sound = SoundEvent.REGISTRY.getObject(new ResourceLocation("presence", "event.freeze"));
-		player.getEntityWorld().playSound(player, player.getPosition(), sound, SoundCategory.PLAYERS, 1.0f, 1.0f);
+		if (freezeSound != null) player.getEntityWorld().playSound(player, player.getPosition(), freezeSound, SoundCategory.PLAYERS, 1.0f, 1.0f);
+	}
+
+	public static int getFrozenPlayerCount() {
+		return freezeDataList.size();
+	}
+
+	public static void onSessionEnd(final EntityPlayer player) {
+		freezeDataList.removeIf(freezeData -> freezeData.getPlayer() == player);
 	}
 
 	private static class FreezeData {
@@ -103,5 +123,9 @@ public class Freeze {
 		public int getTicks() {
 			return freezeTicks;
 		}
+
+		public EntityPlayer getPlayer() {
+			return frozenPlayer;
+		}
 	}
 }
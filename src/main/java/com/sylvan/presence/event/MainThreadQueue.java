@@ -0,0 +1,132 @@
+package com.sylvan.presence.event;
+
+import com.sylvan.presence.Presence;
+import com.sylvan.presence.util.FairQueue;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MainThreadQueue {
+	// Config
+	private static int mainThreadQueueCapacity = 1024;	// The maximum number of world tasks waiting for the server thread before new ones are rejected
+	private static int mainThreadQueueTasksPerTick = 16;	// The maximum number of world tasks to run at the end of each server tick
+	public static int mainThreadQueueRetryDelay = 1;	// The delay in seconds before resubmitting a task that was rejected by a full queue
+
+	private static final Object SHARED_OWNER = new Object();
+	private static final Queue<QueuedTask> inbox = new ConcurrentLinkedQueue<>();
+	private static final FairQueue<Runnable> lanes = new FairQueue<>();	// Pending tasks for each owner, drained round-robin
+	private static final AtomicInteger queueDepth = new AtomicInteger();
+	private static final AtomicInteger peakQueueDepth = new AtomicInteger();
+	private static final AtomicLong submittedTasks = new AtomicLong();
+	private static final AtomicLong rejectedTasks = new AtomicLong();
+	private static long executedTasks = 0;
+	private static int lastTickExecutedTasks = 0;
+
+	public static void loadConfig() {
+		try {
+			mainThreadQueueCapacity = Presence.config.getOrSetValue("mainThreadQueueCapacity", mainThreadQueueCapacity).getAsInt();
+			mainThreadQueueTasksPerTick = Presence.config.getOrSetValue("mainThreadQueueTasksPerTick", mainThreadQueueTasksPerTick).getAsInt();
+			mainThreadQueueRetryDelay = Presence.config.getOrSetValue("mainThreadQueueRetryDelay", mainThreadQueueRetryDelay).getAsInt();
+		} catch (UnsupportedOperationException e) {
+			Presence.LOGGER.error("Configuration issue for MainThreadQueue.java. Wiping and using default values.", e);
+			Presence.config.wipe();
+			Presence.initConfig();
+		}
+	}
+
+	public static boolean submit(final Runnable task) {
+		return submit(null, task);
+	}
+
+	public static boolean submit(final Object owner, final Runnable task) {
+		// Reject rather than grow without bound when the server thread falls behind
+		final int depth = queueDepth.incrementAndGet();
+		if (depth > mainThreadQueueCapacity) {
+			queueDepth.decrementAndGet();
+			rejectedTasks.incrementAndGet();
+			return false;
+		}
+		inbox.add(new QueuedTask((owner == null) ? SHARED_OWNER : owner, task));
+		submittedTasks.incrementAndGet();
+		peakQueueDepth.accumulateAndGet(depth, Math::max);
+		return true;
+	}
+
+	public static void onServerTick() {
+		// Sort newly submitted tasks into their owner's lane
+		QueuedTask queuedTask;
+		while ((queuedTask = inbox.poll()) != null) {
+			lanes.add(queuedTask.owner, queuedTask.task);
+		}
+
+		// Take one task from each owner in turn so one player's backlog cannot starve the others
+		int executed = 0;
+		while (executed < mainThreadQueueTasksPerTick && !lanes.isEmpty()) {
+			// Always make progress on at least one task, even once the tick budget is spent
+			if (executed > 0 && TickBudget.isExhausted()) break;
+
+			final Runnable task = lanes.poll();
+			queueDepth.decrementAndGet();
+			++executed;
+			final long startNanos = TickBudget.start();
+			try {
+				task.run();
+			} catch (RuntimeException e) {
+				Presence.LOGGER.error("Failed to run queued world task.", e);
+			}
+			TickBudget.stop(startNanos);
+		}
+		if (!lanes.isEmpty() && TickBudget.isExhausted()) TickBudget.recordDeferred(queueDepth.get());
+		executedTasks += executed;
+		lastTickExecutedTasks = executed;
+	}
+
+	public static void clear() {
+		inbox.clear();
+		lanes.clear();
+		queueDepth.set(0);
+	}
+
+	public static int getQueueDepth() {
+		return queueDepth.get();
+	}
+
+	public static int getPeakQueueDepth() {
+		return peakQueueDepth.get();
+	}
+
+	public static long getSubmittedTasks() {
+		return submittedTasks.get();
+	}
+
+	public static long getRejectedTasks() {
+		return rejectedTasks.get();
+	}
+
+	public static long getExecutedTasks() {
+		return executedTasks;
+	}
+
+	public static int getLastTickExecutedTasks() {
+		return lastTickExecutedTasks;
+	}
+
+	public static String getStats() {
+		return "World task queue: depth " + getQueueDepth() + "/" + mainThreadQueueCapacity +
+			" (peak " + getPeakQueueDepth() + ", " + lanes.getOwnerCount() + " owners), submitted " + getSubmittedTasks() +
+			", executed " + getExecutedTasks() + ", rejected " + getRejectedTasks() +
+			", last tick " + getLastTickExecutedTasks() + "/" + mainThreadQueueTasksPerTick;
+	}
+
+	private static class QueuedTask {
+		private final Object owner;
+		private final Runnable task;
+
+		private QueuedTask(final Object owner, final Runnable task) {
+			this.owner = owner;
+			this.task = task;
+		}
+	}
+}
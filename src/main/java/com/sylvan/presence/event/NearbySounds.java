@@ -3,8 +3,11 @@ package com.sylvan.presence.event;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.HauntSession;
 import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.util.Algorithms;
+import com.sylvan.presence.util.SpawnCandidatePool;
+import com.sylvan.presence.util.WeightedSampler;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.init.SoundEvents;
 import net.minecraft.registry.Registries;
@@ -25,6 +28,7 @@ import java.util.concurrent.TimeUnit;
 
 public class NearbySounds {
 	private static final Map<SoundEvent, Float> nearbySounds = new HashMap<>();
+	private static WeightedSampler<SoundEvent> nearbySoundsSampler = WeightedSampler.empty();	// Compiled from nearbySounds in initEvent
 
 	// Config
 	public static boolean nearbySoundsEnabled = true;			// Whether the nearby sounds event is active
@@ -51,7 +55,7 @@ public class NearbySounds {
 			nearbySoundsDistanceMin = Presence.config.getOrSetValue("nearbySoundsDistanceMin", nearbySoundsDistanceMin).getAsInt();
 			nearbySoundsDistanceMax = Presence.config.getOrSetValue("nearbySoundsDistanceMax", nearbySoundsDistanceMax).getAsInt();
 			nearbySoundsSoundWeights = Presence.config.getOrSetValue("nearbySoundsSoundWeights", nearbySoundsSoundWeights).getAsJsonObject();
-		} catch (UnsupportedOperationException e) {
+		} catch (UnsupportedOperationException | IllegalStateException e) {
 			Presence.LOGGER.error("Configuration issue for NearbySounds.java. Wiping and using default values.", e);
 			Presence.config.wipe();
 			Presence.initConfig();
@@ -60,6 +64,7 @@ public class NearbySounds {
 
 	public static void initEvent() {
 		try {
+			nearbySounds.clear();
 			String key;
 			for (Map.Entry<String, JsonElement> entry : nearbySoundsSoundWeights.entrySet()) {
 				key = entry.getKey();
@@ -71,6 +76,7 @@ public class NearbySounds {
 				}
 				nearbySounds.put(sound, entry.getValue().getAsFloat());
 			}
+			nearbySoundsSampler = WeightedSampler.compile(nearbySounds);
 		} catch (UnsupportedOperationException e) {
 			Presence.LOGGER.error("Configuration issue for AmbientSounds.java. Wiping and using default values.", e);
 			Presence.config.wipe();
@@ -80,18 +86,23 @@ public class NearbySounds {
 	}
 
 	public static void scheduleEvent(final EntityPlayer player) {
-		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
-		Events.scheduler.schedule(
-			() -> {
-				if (player.isRemoved()) return;
-				playNearbySound(player, false);
-				scheduleEvent(player);
-			},
-			Algorithms.RANDOM.nextBetween(
+		final PlayerData playerData = PlayerData.getPlayerData(player);
+		final float hauntLevel = playerData.getHauntLevel();
+		playerData.getSession().getEventTimer("nearbySounds", NearbySounds::newEventTask).arm(Events.toTicks(
+			PlayerData.getRandom(player).nextBetween(
 				Algorithms.divideByFloat(nearbySoundsDelayMin, hauntLevel),
 				Algorithms.divideByFloat(nearbySoundsDelayMax, hauntLevel)
 			), TimeUnit.SECONDS
-		);
+		));
+	}
+
+	private static Runnable newEventTask(final HauntSession session) {
+		final EntityPlayer player = session.getPlayer();
+		return () -> {
+			if (player.isRemoved()) return;
+			playNearbySound(player, false);
+			scheduleEvent(player);
+		};
 	}
 
 	public static void playNearbySound(final EntityPlayer player, final boolean overrideHauntLevel) {
@@ -101,8 +112,16 @@ public class NearbySounds {
 		}
 
 		final World world = player.getEntityWorld();
-		final BlockPos soundPos = Algorithms.getRandomStandableBlockNearEntity(player, nearbySoundsDistanceMin, nearbySoundsDistanceMax, 20, true);
-		final SoundEvent sound = Algorithms.randomKeyFromWeightMap(nearbySounds);
+		final SpawnCandidatePool.Band band = new SpawnCandidatePool.Band(
+			nearbySoundsDistanceMin,
+			nearbySoundsDistanceMax,
+			Math.max(nearbySoundsDistanceMin, nearbySoundsDistanceMax - nearbySoundsDistanceMin),
+			true
+		);
+		BlockPos soundPos = PlayerData.getPlayerData(player).getSpawnPool().draw(player, band);
+		if (soundPos == null) soundPos = Algorithms.getRandomStandableBlockNearEntity(player, nearbySoundsDistanceMin, nearbySoundsDistanceMax, 20, true);
+		final SoundEvent sound = nearbySoundsSampler.sample(PlayerData.getRandom(player));
+		if (sound == null) return;
 		world.playSound(null, soundPos, sound, SoundCategory.PLAYERS, 16.0f, 1.0f);
 	}
 }
@@ -1,23 +1,22 @@
 package com.sylvan.presence.event;
 
-import com.google.common.base.Predicate;
+import com.google.gson.JsonArray;
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.HauntSession;
 import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.util.Algorithms;
-import net.minecraft.block.Block;
+import com.sylvan.presence.util.BlockCategory;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.init.Blocks;
 import net.minecraft.init.SoundEvents;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.SoundCategory;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
-import javax.annotation.Nullable;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class OpenChest {
 	// Config
@@ -32,8 +31,11 @@ public class OpenChest {
 	private static boolean openChestNotSeenConstraint = true;	// Whether the constraint for making the chest open only when not seen is active
 	private static boolean openChestSwapItems = true;		// Whether to swap two random items in the chest
 	private static boolean openChestPlaySound = true;		// Whether to play the chest open sound
+	private static JsonArray openChestBlocks = BlockCategory.toJsonArray("minecraft:chest", "minecraft:trapped_chest");	// The block IDs of chests to open. * matches anything, such as "*:*chest"
 
-	public static final ArrayList<Block> chestBlocks = new ArrayList<>();
+	public static final BlockCategory chestBlocks = new BlockCategory("chests", true);
+
+	private static final RetryPolicy retryPolicy = RetryPolicy.forEvent("openChest");
 
 	public static void loadConfig() {
 		try {
@@ -48,7 +50,8 @@ public class OpenChest {
 			openChestNotSeenConstraint = Presence.config.getOrSetValue("openChestNotSeenConstraint", openChestNotSeenConstraint).getAsBoolean();
 			openChestSwapItems = Presence.config.getOrSetValue("openChestSwapItems", openChestSwapItems).getAsBoolean();
 			openChestPlaySound = Presence.config.getOrSetValue("openChestPlaySound", openChestPlaySound).getAsBoolean();
-		} catch (UnsupportedOperationException e) {
+			openChestBlocks = Presence.config.getOrSetValue("openChestBlocks", openChestBlocks).getAsJsonArray();
+		} catch (UnsupportedOperationException | IllegalStateException e) {
 			Presence.LOGGER.error("Configuration issue for OpenChest.java. Wiping and using default values.", e);
 			Presence.config.wipe();
 			Presence.initConfig();
@@ -56,15 +59,14 @@ public class OpenChest {
 	}
 
 	public static void initEvent() {
-		chestBlocks.add(Blocks.CHEST);
-		chestBlocks.add(Blocks.TRAPPED_CHEST);
+		chestBlocks.compile(openChestBlocks);
 	}
 
 	public static void scheduleEvent(final EntityPlayer player) {
 		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
 		scheduleEventWithDelay(
 			player,
-			Algorithms.RANDOM.nextBetween(
+			PlayerData.getRandom(player).nextBetween(
 				Algorithms.divideByFloat(openChestDelayMin, hauntLevel),
 				Algorithms.divideByFloat(openChestDelayMax, hauntLevel)
 			)
@@ -72,24 +74,31 @@ public class OpenChest {
 	}
 
 	public static void scheduleEventWithDelay(final EntityPlayer player, final int delay) {
-		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
-		Events.scheduler.schedule(
-			() -> {
-				if (openChest(player, false)) {
-					scheduleEventWithDelay(
-						player,
-						Algorithms.RANDOM.nextBetween(
-							Algorithms.divideByFloat(openChestDelayMin, hauntLevel),
-							Algorithms.divideByFloat(openChestDelayMax, hauntLevel)
-						)
-					);
-				} else {
-					// Retry if it is a bad time
-					scheduleEventWithDelay(player, openChestRetryDelay);
-				}
-			},
-			delay, TimeUnit.SECONDS
-		);
+		PlayerData.getPlayerData(player).getSession().getEventTimer("openChest", OpenChest::newEventTask).arm(Events.toTicks(delay, TimeUnit.SECONDS));
+	}
+
+	private static Runnable newEventTask(final HauntSession session) {
+		final EntityPlayer player = session.getPlayer();
+		final PlayerData playerData = PlayerData.getPlayerData(player);
+		final Consumer<BlockPos> onSearched = nearestChestPos -> {
+			if (session.isCancelled()) return;
+			if (openChest(player, nearestChestPos)) {
+				retryPolicy.onSuccess(player);
+				scheduleEvent(player);
+			} else {
+				// Retry if it is a bad time, backing off while it keeps failing
+				scheduleEventWithDelay(player, retryPolicy.getRetryDelay(player, openChestRetryDelay));
+			}
+		};
+		return () -> {
+			if (playerData.getHauntLevel() < openChestHauntLevelMin) {
+				scheduleEvent(player); // Reset event as if it passed
+				return;
+			}
+
+			// Search a snapshot of the nearby chunks off the server thread, then finish the event back on it
+			BlockSearch.findNearestBlock(player, chestBlocks, openChestSearchRadius, player.getUuid(), onSearched);
+		};
 	}
 
 	public static boolean openChest(final EntityPlayer player, final boolean overrideHauntLevel) {
@@ -98,18 +107,16 @@ public class OpenChest {
 			if (hauntLevel < openChestHauntLevelMin) return true; // Reset event as if it passed
 		}
 
-		// Get nearest chest position
-		BlockPos nearestChestPos = Algorithms.getNearestBlockToEntity(player, chestBlocks, openChestSearchRadius);
-		if (nearestChestPos == null) return false;
+		return openChest(player, Algorithms.getNearestBlockToEntity(player, chestBlocks, openChestSearchRadius));
+	}
 
-		// Players must not see chest open
+	public static boolean openChest(final EntityPlayer player, final BlockPos nearestChestPos) {
+		// The block may have changed since it was found
 		final World world = player.getEntityWorld();
-		final List<? extends EntityPlayer> players = world.getPlayers(EntityPlayer.class, new Predicate<EntityPlayer>() {
-			@Override
-			public boolean apply(@Nullable EntityPlayer input) {
-				return true;
-			}
-		});
+		if (nearestChestPos == null || !chestBlocks.contains(world.getBlockState(nearestChestPos).getBlock())) return false;
+
+		// Players must not see chest open
+		final List<? extends EntityPlayer> players = world.playerEntities;
 		if (openChestNotSeenConstraint && (Algorithms.couldBlockBeSeenByPlayers(players, nearestChestPos))) return false;
 		final IBlockState chestBlockState = world.getBlockState(nearestChestPos);
 
@@ -120,9 +127,9 @@ public class OpenChest {
 
 			// Get two random slots
             assert chestInventory != null;
-            final int slot1 = Algorithms.RANDOM.nextBetween(0, chestInventory.size() - 1);
+            final int slot1 = PlayerData.getRandom(player).nextBetween(0, chestInventory.size() - 1);
 			final ItemStack stack1 = chestInventory.getStack(slot1);
-			int slot2 = Algorithms.RANDOM.nextBetween(0, chestInventory.size() - 1);
+			int slot2 = PlayerData.getRandom(player).nextBetween(0, chestInventory.size() - 1);
 			ItemStack stack2;
 	
 			// Make sure slots are different
@@ -154,9 +161,9 @@ public class OpenChest {
 		// Play open chest sound
 		if (openChestPlaySound) {
 			world.playSound(null, nearestChestPos, SoundEvents.BLOCK_CHEST_OPEN, SoundCategory.BLOCKS, 16.0f, 1.0f);
-			Events.scheduler.schedule(
+			PlayerData.getPlayerData(player).getSession().schedule(
 				() -> world.playSound(null, nearestChestPos, SoundEvents.BLOCK_CHEST_CLOSE, SoundCategory.BLOCKS, 16.0f, 1.0f),
-					Algorithms.RANDOM.nextBetween(openChestCloseSoundMsMin, openChestCloseSoundMsMax),
+					PlayerData.getRandom(player).nextBetween(openChestCloseSoundMsMin, openChestCloseSoundMsMax),
 					TimeUnit.MILLISECONDS
 			);
 		}
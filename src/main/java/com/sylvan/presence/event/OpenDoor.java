@@ -1,22 +1,23 @@
 package com.sylvan.presence.event;
 
+import com.google.gson.JsonArray;
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.HauntSession;
 import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.util.Algorithms;
-import net.minecraft.block.Block;
+import com.sylvan.presence.util.BlockCategory;
 import net.minecraft.block.BlockDoor;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.DoorBlock;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.init.Blocks;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class OpenDoor {
 	// Config
@@ -27,8 +28,11 @@ public class OpenDoor {
 	private static int openDoorRetryDelay = 60;			// The delay between retrying to open a door if the previous attempt failed
 	private static int openDoorSearchRadius = 32;			// The search radius of finding doors to open. Higher values have exponential lag during the tick performing the search
 	private static boolean openDoorNotSeenConstraint = true;	// Whether the constraint for making the door open only when not seen is active
+	private static JsonArray openDoorBlocks = BlockCategory.toJsonArray("minecraft:acacia_door", "minecraft:birch_door", "minecraft:dark_oak_door", "minecraft:jungle_door", "minecraft:wooden_door", "minecraft:spruce_door");	// The block IDs of doors to open. * matches anything, such as "*:*_door"
 
-	public static final ArrayList<Block> doorBlocks = new ArrayList<>();
+	public static final BlockCategory doorBlocks = new BlockCategory("doors", true);
+
+	private static final RetryPolicy retryPolicy = RetryPolicy.forEvent("openDoor");
 
 	public static void loadConfig() {
 		try {
@@ -39,7 +43,8 @@ public class OpenDoor {
 			openDoorRetryDelay = Presence.config.getOrSetValue("openDoorRetryDelay", openDoorRetryDelay).getAsInt();
 			openDoorSearchRadius = Presence.config.getOrSetValue("openDoorSearchRadius", openDoorSearchRadius).getAsInt();
 			openDoorNotSeenConstraint = Presence.config.getOrSetValue("openDoorNotSeenConstraint", openDoorNotSeenConstraint).getAsBoolean();
-		} catch (UnsupportedOperationException e) {
+			openDoorBlocks = Presence.config.getOrSetValue("openDoorBlocks", openDoorBlocks).getAsJsonArray();
+		} catch (UnsupportedOperationException | IllegalStateException e) {
 			Presence.LOGGER.error("Configuration issue for OpenDoor.java. Wiping and using default values.", e);
 			Presence.config.wipe();
 			Presence.initConfig();
@@ -47,19 +52,14 @@ public class OpenDoor {
 	}
 
 	public static void initEvent() {
-		doorBlocks.add(Blocks.ACACIA_DOOR);
-		doorBlocks.add(Blocks.BIRCH_DOOR);
-		doorBlocks.add(Blocks.DARK_OAK_DOOR);
-		doorBlocks.add(Blocks.JUNGLE_DOOR);
-		doorBlocks.add(Blocks.OAK_DOOR);
-		doorBlocks.add(Blocks.SPRUCE_DOOR);
+		doorBlocks.compile(openDoorBlocks);
 	}
 
 	public static void scheduleEvent(final EntityPlayer player) {
 		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
 		scheduleEventWithDelay(
 			player,
-			Algorithms.RANDOM.nextBetween(
+			PlayerData.getRandom(player).nextBetween(
 				Algorithms.divideByFloat(openDoorDelayMin, hauntLevel),
 				Algorithms.divideByFloat(openDoorDelayMax, hauntLevel)
 			)
@@ -67,24 +67,31 @@ public class OpenDoor {
 	}
 
 	public static void scheduleEventWithDelay(final EntityPlayer player, final int delay) {
-		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
-		Events.scheduler.schedule(
-			() -> {
-				if (openDoor(player, false)) {
-					scheduleEventWithDelay(
-						player,
-						Algorithms.RANDOM.nextBetween(
-							Algorithms.divideByFloat(openDoorDelayMin, hauntLevel),
-							Algorithms.divideByFloat(openDoorDelayMax, hauntLevel)
-						)
-					);
-				} else {
-					// Retry if it is a bad time
-					scheduleEventWithDelay(player, openDoorRetryDelay);
-				}
-			},
-			delay, TimeUnit.SECONDS
-		);
+		PlayerData.getPlayerData(player).getSession().getEventTimer("openDoor", OpenDoor::newEventTask).arm(Events.toTicks(delay, TimeUnit.SECONDS));
+	}
+
+	private static Runnable newEventTask(final HauntSession session) {
+		final EntityPlayer player = session.getPlayer();
+		final PlayerData playerData = PlayerData.getPlayerData(player);
+		final Consumer<BlockPos> onSearched = nearestDoorPos -> {
+			if (session.isCancelled()) return;
+			if (openDoor(player, nearestDoorPos)) {
+				retryPolicy.onSuccess(player);
+				scheduleEvent(player);
+			} else {
+				// Retry if it is a bad time, backing off while it keeps failing
+				scheduleEventWithDelay(player, retryPolicy.getRetryDelay(player, openDoorRetryDelay));
+			}
+		};
+		return () -> {
+			if (playerData.getHauntLevel() < openDoorHauntLevelMin) {
+				scheduleEvent(player); // Reset event as if it passed
+				return;
+			}
+
+			// Search a snapshot of the nearby chunks off the server thread, then finish the event back on it
+			BlockSearch.findNearestBlock(player, doorBlocks, openDoorSearchRadius, player.getUuid(), onSearched);
+		};
 	}
 
 	public static boolean openDoor(final EntityPlayer player, final boolean overrideHauntLevel) {
@@ -93,18 +100,19 @@ public class OpenDoor {
 			if (hauntLevel < openDoorHauntLevelMin) return true; // Reset event as if it passed
 		}
 
-		// Get nearest door position
-		BlockPos nearestDoorPos = Algorithms.getNearestBlockToEntity(player, doorBlocks, openDoorSearchRadius);
-		if (nearestDoorPos == null) return false;
+		return openDoor(player, Algorithms.getNearestBlockToEntity(player, doorBlocks, openDoorSearchRadius));
+	}
 
-		// Players must not see door open
+	public static boolean openDoor(final EntityPlayer player, final BlockPos nearestDoorPos) {
+		// The block may have changed since it was found
 		final World world = player.getEntityWorld();
+		if (nearestDoorPos == null || !doorBlocks.contains(world.getBlockState(nearestDoorPos).getBlock())) return false;
+
+		// Players must not see door open
 		final List<? extends EntityPlayer> players = world.getPlayers();
 		if (
-			openDoorNotSeenConstraint && (
-				Algorithms.couldBlockBeSeenByPlayers(players, nearestDoorPos) ||
-				Algorithms.couldBlockBeSeenByPlayers(players, nearestDoorPos.up())
-			)
+			openDoorNotSeenConstraint &&
+			Algorithms.couldBlockBeSeenByPlayers(players, nearestDoorPos, nearestDoorPos.up())
 		) return false;
 
 		// Open door
@@ -0,0 +1,125 @@
+package com.sylvan.presence.event;
+
+import com.sylvan.presence.Presence;
+import com.sylvan.presence.util.FairQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OperationLimiter {
+	// Config
+	private static int operationLimiterBlockSearchPermits = 2;		// The maximum amount of block searches running at once across all players
+	private static int operationLimiterCaveDetectionPermits = 4;		// The maximum amount of cave detection passes started per tick across all players
+	private static int operationLimiterSpawnPlacementPermits = 4;		// The maximum amount of Herobrine spawn placement walks started per tick across all players
+	private static int operationLimiterQueueCapacity = 64;			// The maximum amount of operations of each kind waiting for a permit before new ones are rejected
+
+	public enum Operation {
+		BLOCK_SEARCH("Block search", false),		// Permits are held until the search completes
+		CAVE_DETECTION("Cave detection", true),		// Permits are renewed every tick
+		SPAWN_PLACEMENT("Spawn placement", true);	// Permits are renewed every tick
+
+		private final String name;
+		private final boolean renewedEachTick;
+		private final FairQueue<Runnable> waiting = new FairQueue<>();
+		private int permits = 0;
+		private int available = 0;
+		private long started = 0;
+		private long deferred = 0;
+		private long rejected = 0;
+
+		Operation(final String name, final boolean renewedEachTick) {
+			this.name = name;
+			this.renewedEachTick = renewedEachTick;
+		}
+	}
+
+	public static void loadConfig() {
+		try {
+			operationLimiterBlockSearchPermits = Presence.config.getOrSetValue("operationLimiterBlockSearchPermits", operationLimiterBlockSearchPermits).getAsInt();
+			operationLimiterCaveDetectionPermits = Presence.config.getOrSetValue("operationLimiterCaveDetectionPermits", operationLimiterCaveDetectionPermits).getAsInt();
+			operationLimiterSpawnPlacementPermits = Presence.config.getOrSetValue("operationLimiterSpawnPlacementPermits", operationLimiterSpawnPlacementPermits).getAsInt();
+			operationLimiterQueueCapacity = Presence.config.getOrSetValue("operationLimiterQueueCapacity", operationLimiterQueueCapacity).getAsInt();
+		} catch (UnsupportedOperationException e) {
+			Presence.LOGGER.error("Configuration issue for OperationLimiter.java. Wiping and using default values.", e);
+			Presence.config.wipe();
+			Presence.initConfig();
+		}
+		setPermits(Operation.BLOCK_SEARCH, operationLimiterBlockSearchPermits);
+		setPermits(Operation.CAVE_DETECTION, operationLimiterCaveDetectionPermits);
+		setPermits(Operation.SPAWN_PLACEMENT, operationLimiterSpawnPlacementPermits);
+	}
+
+	private static void setPermits(final Operation operation, final int permits) {
+		operation.available += Math.max(1, permits) - operation.permits;
+		operation.permits = Math.max(1, permits);
+	}
+
+	// Must be called on the server thread. Runs the task now if a permit is free, otherwise waits in the owner's lane
+	public static boolean submit(final Operation operation, final Object owner, final Runnable task) {
+		if (operation.available > 0 && operation.waiting.isEmpty()) {
+			start(operation, task);
+			return true;
+		}
+		if (operation.waiting.size() >= operationLimiterQueueCapacity) {
+			++operation.rejected;
+			return false;
+		}
+		operation.waiting.add(owner, task);
+		++operation.deferred;
+		return true;
+	}
+
+	// A task that throws never reaches the code that would release its permit, so give it back here
+	private static void start(final Operation operation, final Runnable task) {
+		--operation.available;
+		++operation.started;
+		try {
+			task.run();
+		} catch (RuntimeException e) {
+			release(operation);
+			Presence.LOGGER.error("Failed to run " + operation.name.toLowerCase() + ".", e);
+		}
+	}
+
+	public static void release(final Operation operation) {
+		if (operation.available < operation.permits) ++operation.available;
+	}
+
+	public static void onServerTick() {
+		for (final Operation operation : Operation.values()) {
+			if (operation.renewedEachTick) operation.available = operation.permits;
+
+			// Start waiting operations one owner at a time
+			Runnable task;
+			while (operation.available > 0 && (task = operation.waiting.poll()) != null) {
+				start(operation, task);
+			}
+		}
+	}
+
+	public static void cancel(final Object owner) {
+		for (final Operation operation : Operation.values()) {
+			operation.waiting.remove(owner);
+		}
+	}
+
+	public static void clear() {
+		for (final Operation operation : Operation.values()) {
+			operation.waiting.clear();
+			operation.available = operation.permits;
+		}
+	}
+
+	public static List<String> getStats() {
+		final List<String> stats = new ArrayList<>();
+		for (final Operation operation : Operation.values()) {
+			stats.add(
+				operation.name + " limiter: " + operation.available + "/" + operation.permits + " permits free" +
+				(operation.renewedEachTick ? " this tick" : "") + ", " + operation.waiting.size() + " waiting from " +
+				operation.waiting.getOwnerCount() + " players, " + operation.started + " started, " +
+				operation.deferred + " deferred, " + operation.rejected + " rejected"
+			);
+		}
+		return stats;
+	}
+}
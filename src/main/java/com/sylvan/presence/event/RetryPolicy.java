@@ -0,0 +1,105 @@
+package com.sylvan.presence.event;
+
+import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.PlayerData;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RetryPolicy {
+	// Config
+	private static float retryBackoffMultiplier = 2.0f;	// The factor each failed attempt multiplies the retry delay of an event by
+	private static float retryJitter = 0.25f;		// The fraction a retry delay is randomly shortened or lengthened by so players do not retry in lockstep. Range: [0.0, 1.0]
+	private static int retryDelayMax = 60 * 10;		// The maximum delay in seconds between retries of a failing event
+	private static int retryMaxAttempts = 8;		// The amount of failed retries before an event gives up and waits retryGiveUpDelay seconds
+	private static int retryGiveUpDelay = 60 * 30;		// The delay in seconds before an event that gave up starts retrying again
+	private static int retryResetDistance = 32;		// The distance a player must move from where an event first failed to reset its backoff
+
+	private static final Map<String, RetryPolicy> policies = new LinkedHashMap<>();
+
+	private final String event;
+	private long retries = 0;
+	private long recoveries = 0;
+	private long givenUp = 0;
+	private long movementResets = 0;
+
+	public static void loadConfig() {
+		try {
+			retryBackoffMultiplier = Presence.config.getOrSetValue("retryBackoffMultiplier", retryBackoffMultiplier).getAsFloat();
+			retryJitter = Presence.config.getOrSetValue("retryJitter", retryJitter).getAsFloat();
+			retryDelayMax = Presence.config.getOrSetValue("retryDelayMax", retryDelayMax).getAsInt();
+			retryMaxAttempts = Presence.config.getOrSetValue("retryMaxAttempts", retryMaxAttempts).getAsInt();
+			retryGiveUpDelay = Presence.config.getOrSetValue("retryGiveUpDelay", retryGiveUpDelay).getAsInt();
+			retryResetDistance = Presence.config.getOrSetValue("retryResetDistance", retryResetDistance).getAsInt();
+		} catch (UnsupportedOperationException e) {
+			Presence.LOGGER.error("Configuration issue for RetryPolicy.java. Wiping and using default values.", e);
+			Presence.config.wipe();
+			Presence.initConfig();
+		}
+	}
+
+	private RetryPolicy(final String event) {
+		this.event = event;
+	}
+
+	public static RetryPolicy forEvent(final String event) {
+		return policies.computeIfAbsent(event, RetryPolicy::new);
+	}
+
+	public int getRetryDelay(final EntityPlayer player, final int retryDelay) {
+		final Attempts attempts = PlayerData.getPlayerData(player).getSession().getRetryAttempts(event);
+		final Vec3d playerPos = player.getPositionVector();
+
+		// Moving away from where the event first failed may have fixed whatever made it fail
+		if (attempts.count > 0 && attempts.origin.squareDistanceTo(playerPos) > (double) retryResetDistance * retryResetDistance) {
+			attempts.count = 0;
+			++movementResets;
+		}
+		if (attempts.count == 0) attempts.origin = playerPos;
+
+		if (attempts.count >= retryMaxAttempts) {
+			attempts.count = 0;
+			++givenUp;
+			return retryGiveUpDelay;
+		}
+
+		final int delay = getBackoffDelay(retryDelay, attempts.count, PlayerData.getRandom(player).nextDouble());
+		++attempts.count;
+		++retries;
+		return delay;
+	}
+
+	// unitRandom is in [0.0, 1.0) and picks where in the jitter range the delay lands
+	static int getBackoffDelay(final int retryDelay, final int attemptCount, final double unitRandom) {
+		final double backoff = Math.min(retryDelayMax, retryDelay * Math.pow(retryBackoffMultiplier, attemptCount));
+		final double jitter = 1.0 + retryJitter * (unitRandom * 2.0 - 1.0);
+		return (int) Math.max(1, Math.round(backoff * jitter));
+	}
+
+	public void onSuccess(final EntityPlayer player) {
+		final Attempts attempts = PlayerData.getPlayerData(player).getSession().getRetryAttempts(event);
+		if (attempts.count > 0) ++recoveries;
+		attempts.count = 0;
+	}
+
+	public static List<String> getStats() {
+		final List<String> stats = new ArrayList<>();
+		for (final RetryPolicy policy : policies.values()) {
+			if (policy.retries == 0) continue;
+			stats.add(
+				"Retries for " + policy.event + ": " + policy.retries + " retries, " + policy.recoveries + " recovered, " +
+				policy.givenUp + " gave up, " + policy.movementResets + " reset by movement"
+			);
+		}
+		return stats;
+	}
+
+	public static class Attempts {
+		private int count = 0;		// The amount of consecutive failures
+		private Vec3d origin;		// Where the player was when the event first failed
+	}
+}
@@ -1,18 +1,18 @@
 package com.sylvan.presence.event;
 
-import com.google.common.base.Predicate;
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.HauntSession;
 import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.entity.StalkingEntity;
 import com.sylvan.presence.util.Algorithms;
+import com.sylvan.presence.util.DimensionRegistry;
+import com.sylvan.presence.util.SpawnCandidatePool;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
 
-import javax.annotation.Nullable;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -29,7 +29,9 @@ public class Stalk {
 	private static int stalkClosePlayerDistanceMin = 48;	// The minimum distance from any player before Herobrine vanishes
 	public static double stalkLookAtThresholdVanish = 0.2;	// The threshold at which to remove Herobrine after being seen
 
-	public static final List<StalkingEntity> stalkingEntities = new ArrayList<>();
+	public static final DimensionRegistry<StalkingEntity> stalkingEntities = new DimensionRegistry<>();
+
+	private static final RetryPolicy retryPolicy = RetryPolicy.forEvent("stalk");
 
 	public static void loadConfig() {
 		try {
@@ -53,7 +55,7 @@ public class Stalk {
 		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
 		scheduleEventWithDelay(
 			player,
-			Algorithms.RANDOM.nextBetween(
+			PlayerData.getRandom(player).nextBetween(
 				Algorithms.divideByFloat(stalkDelayMax, hauntLevel),
 				Algorithms.divideByFloat(stalkDelayMax, hauntLevel)
 			)
@@ -61,44 +63,58 @@ public class Stalk {
 	}
 
 	public static void scheduleEventWithDelay(final EntityPlayer player, final int delay) {
-		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
-		Events.scheduler.schedule(
-			() -> {
-				if (stalk(player, false)) {
-					scheduleEventWithDelay(
-						player,
-						Algorithms.RANDOM.nextBetween(
-							Algorithms.divideByFloat(stalkDelayMin, hauntLevel),
-							Algorithms.divideByFloat(stalkDelayMax, hauntLevel)
-						)
-					);
-				} else {
-					// Retry if it is a bad time
-					scheduleEventWithDelay(player, stalkRetryDelay);
-				}
-			},
-			delay, TimeUnit.SECONDS
-		);
+		PlayerData.getPlayerData(player).getSession().getEventTimer("stalk", Stalk::newEventTask).arm(Events.toTicks(delay, TimeUnit.SECONDS));
+	}
+
+	private static Runnable newEventTask(final HauntSession session) {
+		final EntityPlayer player = session.getPlayer();
+		final PlayerData playerData = PlayerData.getPlayerData(player);
+		final Runnable placementTask = () -> {
+			final float hauntLevel = playerData.getHauntLevel();
+			if (stalk(player, false)) {
+				retryPolicy.onSuccess(player);
+				scheduleEventWithDelay(
+					player,
+					PlayerData.getRandom(player).nextBetween(
+						Algorithms.divideByFloat(stalkDelayMin, hauntLevel),
+						Algorithms.divideByFloat(stalkDelayMax, hauntLevel)
+					)
+				);
+			} else {
+				// Retry if it is a bad time, backing off while it keeps failing
+				scheduleEventWithDelay(player, retryPolicy.getRetryDelay(player, stalkRetryDelay));
+			}
+		};
+		return () -> {
+			// Spawn placement walks and raycasts many blocks, so limit how many players do it at once
+			if (!OperationLimiter.submit(OperationLimiter.Operation.SPAWN_PLACEMENT, player.getUuid(), placementTask)) {
+				// Too many players are already waiting, so treat it like any other bad time
+				scheduleEventWithDelay(player, retryPolicy.getRetryDelay(player, stalkRetryDelay));
+			}
+		};
 	}
 
 	public static void onShutdown() {
-		for (final StalkingEntity herobrine : stalkingEntities) {
-			herobrine.remove();
-		}
+		stalkingEntities.forEach(StalkingEntity::remove);
 		stalkingEntities.clear();
 	}
 
-	public static void onWorldTick(final WorldServer world) {
-		if (stalkingEntities.isEmpty()) return;
-		final List<EntityPlayer> players = world.getPlayers(EntityPlayer.class, new Predicate<EntityPlayer>() {
-			@Override
-			public boolean apply(@Nullable EntityPlayer input) {
-				return true;
-			}
+	public static void onSessionEnd(final EntityPlayer player) {
+		stalkingEntities.removeIf(herobrine -> {
+			if (herobrine.getTrackedPlayer() != player) return false;
+			herobrine.remove();
+			return true;
 		});
+	}
+
+	public static void onWorldTick(final WorldServer world) {
+		// Only walk the Herobrines summoned in this dimension
+		final int dimension = world.provider.getDimension();
+		if (stalkingEntities.isEmpty(dimension)) return;
+		final List<EntityPlayer> players = world.playerEntities;
 		if (players.isEmpty()) return;
 
-		Iterator<StalkingEntity> it = stalkingEntities.iterator();
+		final Iterator<StalkingEntity> it = stalkingEntities.iterator(dimension);
 		StalkingEntity herobrine;
 		while (it.hasNext()) {
 			herobrine = it.next();
@@ -124,28 +140,40 @@ public class Stalk {
 			if (hauntLevel < stalkHauntLevelMin) return true; // Reset event as if it passed
 		}
 
-        final World world = player.getEntityWorld();
-		Vec3d spawnPos = Algorithms.getRandomPosNearEntity(player, stalkDistanceMin, stalkDistanceMax, false);
-		final BlockPos playerBlockPos = player.getPosition();
-		final BlockPos spawnBlockPos = Algorithms.getNearestStandableBlockPos(
-			world,
-			Algorithms.getBlockPosFromVec3d(spawnPos),
-			playerBlockPos.getY() - stalkDistanceMin,
-			playerBlockPos.getY() + stalkDistanceMin
-		);
-		spawnPos = new Vec3d(
-			spawnPos.x,
-			spawnBlockPos.up().getY(),
-			spawnPos.z
-		);
-
-		if (!Algorithms.couldPlayerStandOnBlock(world, Algorithms.getBlockPosFromVec3d(spawnPos).down())) return false;
+		final World world = player.getEntityWorld();
+		final SpawnCandidatePool.Band band = new SpawnCandidatePool.Band(stalkDistanceMin, stalkDistanceMax, stalkDistanceMin, false);
+		final BlockPos pooledBlockPos = PlayerData.getPlayerData(player).getSpawnPool().draw(player, band);
+		Vec3d spawnPos;
+		if (pooledBlockPos != null) {
+			// Already validated by the pool
+			spawnPos = new Vec3d(
+				pooledBlockPos.getX() + 0.5,
+				pooledBlockPos.getY() + 1,
+				pooledBlockPos.getZ() + 0.5
+			);
+		} else {
+			spawnPos = Algorithms.getRandomPosNearEntity(player, stalkDistanceMin, stalkDistanceMax, false);
+			final BlockPos playerBlockPos = player.getPosition();
+			final BlockPos spawnBlockPos = Algorithms.getNearestStandableBlockPos(
+				world,
+				Algorithms.getBlockPosFromVec3d(spawnPos),
+				playerBlockPos.getY() - stalkDistanceMin,
+				playerBlockPos.getY() + stalkDistanceMin
+			);
+			// The walk keeps the column, so this is the block the spawn position will stand on
+			if (!Algorithms.couldPlayerStandOnBlock(world, spawnBlockPos)) return false;
+			spawnPos = new Vec3d(
+				spawnPos.x,
+				spawnBlockPos.getY() + 1,
+				spawnPos.z
+			);
+		}
 
 		final StalkingEntity herobrine = new StalkingEntity(world, "classic", player);
 		herobrine.setPosition(spawnPos);
 		herobrine.lookAt(player);
 		herobrine.summon();
-		stalkingEntities.add(herobrine);
+		stalkingEntities.add(world.provider.getDimension(), herobrine);
 
 		return true;
 	}
@@ -1,6 +1,7 @@
 package com.sylvan.presence.event;
 
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.HauntSession;
 import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.util.Algorithms;
 import net.minecraft.entity.player.EntityPlayer;
@@ -17,6 +18,8 @@ public class SubtitleWarning {
 	private static int subtitleWarningDelayMin = 60 * 30;		// The minimum delay between subtitle warning events
 	private static int subtitleWarningDelayMax = 60 * 60 * 2;	// The maximum delay between subtitle warning events
 
+	private static SoundEvent warningSound;	// Resolved in initEvent instead of on every warning
+
 	public static void loadConfig() {
 		try {
 			subtitleWarningEnabled = Presence.config.getOrSetValue("subtitleWarningEnabled", subtitleWarningEnabled).getAsBoolean();
@@ -30,18 +33,28 @@ public class SubtitleWarning {
 		}
 	}
 
+	public static void initEvent() {
+		warningSound = SoundEvent.REGISTRY.getObject(new ResourceLocation("presence", "message.warning"));
+		if (warningSound == null) Presence.LOGGER.warn("Could not find sound \"presence:message.warning\" in SubtitleWarning.java.");
+	}
+
 	public static void scheduleEvent(final EntityPlayer player) {
-		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
-		Events.scheduler.schedule(
-			() -> {
-				subtitleWarning(player, false);
-				scheduleEvent(player);
-			},
-			Algorithms.RANDOM.nextBetween(
+		final PlayerData playerData = PlayerData.getPlayerData(player);
+		final float hauntLevel = playerData.getHauntLevel();
+		playerData.getSession().getEventTimer("subtitleWarning", SubtitleWarning::newEventTask).arm(Events.toTicks(
+			PlayerData.getRandom(player).nextBetween(
 				Algorithms.divideByFloat(subtitleWarningDelayMin, hauntLevel),
 				Algorithms.divideByFloat(subtitleWarningDelayMax, hauntLevel)
 			), TimeUnit.SECONDS
-		);
+		));
+	}
+
+	private static Runnable newEventTask(final HauntSession session) {
+		final EntityPlayer player = session.getPlayer();
+		return () -> {
+			subtitleWarning(player, false);
+			scheduleEvent(player);
+		};
 	}
 
 	public static void subtitleWarning(final EntityPlayer player, final boolean overrideHauntLevel) {
@@ -50,7 +63,7 @@ public class SubtitleWarning {
 			if (hauntLevel < subtitleWarningHauntLevelMin) return; // Reset event as if it passed
 		}
 
-		final SoundEvent sound = SoundEvent.REGISTRY.getObject(new ResourceLocation("presence", "message.warning"));
-		player.getEntityWorld().playSound(player, player.getPosition(), sound, SoundCategory.PLAYERS, 1.0f, 1.0f);
+		if (warningSound == null) return;
+		player.getEntityWorld().playSound(player, player.getPosition(), warningSound, SoundCategory.PLAYERS, 1.0f, 1.0f);
 	}
 }
@@ -0,0 +1,72 @@
+package com.sylvan.presence.event;
+
+import com.sylvan.presence.Presence;
+
+public class TickBudget {
+	// Config
+	private static float tickBudgetMs = 5.0f;	// The milliseconds Presence may spend per server tick before deferring remaining event executions to later ticks
+
+	private static long budgetNanos = (long) (tickBudgetMs * 1_000_000L);
+	private static long usedNanos = 0;
+	private static long lastTickUsedNanos = 0;
+	private static long maxTickUsedNanos = 0;
+	private static long totalUsedNanos = 0;
+	private static long ticks = 0;
+	private static long exhaustedTicks = 0;
+	private static long deferredTasks = 0;
+	private static boolean exhausted = false;
+
+	public static void loadConfig() {
+		try {
+			tickBudgetMs = Presence.config.getOrSetValue("tickBudgetMs", tickBudgetMs).getAsFloat();
+			budgetNanos = (long) (tickBudgetMs * 1_000_000L);
+		} catch (UnsupportedOperationException e) {
+			Presence.LOGGER.error("Configuration issue for TickBudget.java. Wiping and using default values.", e);
+			Presence.config.wipe();
+			Presence.initConfig();
+		}
+	}
+
+	public static void onServerTick() {
+		// Roll the previous tick into the totals and start a fresh budget
+		if (ticks > 0) {
+			lastTickUsedNanos = usedNanos;
+			maxTickUsedNanos = Math.max(maxTickUsedNanos, usedNanos);
+			totalUsedNanos += usedNanos;
+			if (exhausted) ++exhaustedTicks;
+		}
+		++ticks;
+		usedNanos = 0;
+		exhausted = false;
+	}
+
+	public static long start() {
+		return System.nanoTime();
+	}
+
+	public static void stop(final long startNanos) {
+		usedNanos += System.nanoTime() - startNanos;
+		if (usedNanos >= budgetNanos) exhausted = true;
+	}
+
+	public static boolean isExhausted() {
+		return exhausted;
+	}
+
+	public static void recordDeferred(final int count) {
+		deferredTasks += count;
+	}
+
+	public static String getStats() {
+		final long measuredTicks = Math.max(1, ticks - 1);
+		return String.format(
+			"Tick budget: %.2fms last tick, %.3fms average, %.2fms max of %.2fms; %d ticks over budget, %d tasks deferred",
+			lastTickUsedNanos / 1_000_000.0,
+			totalUsedNanos / 1_000_000.0 / measuredTicks,
+			maxTickUsedNanos / 1_000_000.0,
+			tickBudgetMs,
+			exhaustedTicks,
+			deferredTasks
+		);
+	}
+}
@@ -1,19 +1,18 @@
 package com.sylvan.presence.event;
 
-import com.google.common.base.Predicate;
+import com.google.gson.JsonArray;
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.HauntSession;
 import com.sylvan.presence.data.PlayerData;
 import com.sylvan.presence.util.Algorithms;
-import net.minecraft.block.Block;
+import com.sylvan.presence.util.BlockCategory;
 import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.init.Blocks;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
-import javax.annotation.Nullable;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class TrampleCrops {
 	// Config
@@ -24,8 +23,11 @@ public class TrampleCrops {
 	private static int trampleCropsRetryDelay = 60;			// The delay between retrying to trample crops if the previous attempt failed
 	private static int trampleCropsSearchRadius = 32;		// The search radius of finding crops to trample. Higher values have exponential lag during the tick performing the search
 	private static boolean trampleCropsNotSeenConstraint = true;	// Whether the constraint for making the crops trample only when not seen is active
+	private static JsonArray trampleCropsBlocks = BlockCategory.toJsonArray("minecraft:wheat", "minecraft:carrots", "minecraft:potatoes", "minecraft:beetroots");	// The block IDs of crops to trample. * matches anything, such as "harvestcraft:*crop"
 
-	public static final ArrayList<Block> cropBlocks = new ArrayList<>();
+	public static final BlockCategory cropBlocks = new BlockCategory("crops", true);
+
+	private static final RetryPolicy retryPolicy = RetryPolicy.forEvent("trampleCrops");
 
 	public static void loadConfig() {
 		try {
@@ -36,7 +38,8 @@ public class TrampleCrops {
 			trampleCropsRetryDelay = Presence.config.getOrSetValue("trampleCropsRetryDelay", trampleCropsRetryDelay).getAsInt();
 			trampleCropsSearchRadius = Presence.config.getOrSetValue("trampleCropsSearchRadius", trampleCropsSearchRadius).getAsInt();
 			trampleCropsNotSeenConstraint = Presence.config.getOrSetValue("trampleCropsNotSeenConstraint", trampleCropsNotSeenConstraint).getAsBoolean();
-		} catch (UnsupportedOperationException e) {
+			trampleCropsBlocks = Presence.config.getOrSetValue("trampleCropsBlocks", trampleCropsBlocks).getAsJsonArray();
+		} catch (UnsupportedOperationException | IllegalStateException e) {
 			Presence.LOGGER.error("Configuration issue for TrampleCrops.java. Wiping and using default values.", e);
 			Presence.config.wipe();
 			Presence.initConfig();
@@ -44,17 +47,14 @@ public class TrampleCrops {
 	}
 
 	public static void initEvent() {
-		cropBlocks.add(Blocks.WHEAT);
-		cropBlocks.add(Blocks.CARROTS);
-		cropBlocks.add(Blocks.POTATOES);
-		cropBlocks.add(Blocks.BEETROOTS);
+		cropBlocks.compile(trampleCropsBlocks);
 	}
 
 	public static void scheduleEvent(final EntityPlayer player) {
 		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
 		scheduleEventWithDelay(
 			player,
-			Algorithms.RANDOM.nextBetween(
+			PlayerData.getRandom(player).nextBetween(
 				Algorithms.divideByFloat(trampleCropsDelayMin, hauntLevel),
 				Algorithms.divideByFloat(trampleCropsDelayMax, hauntLevel)
 			)
@@ -62,24 +62,31 @@ public class TrampleCrops {
 	}
 
 	public static void scheduleEventWithDelay(final EntityPlayer player, final int delay) {
-		final float hauntLevel = PlayerData.getPlayerData(player).getHauntLevel();
-		Events.scheduler.schedule(
-			() -> {
-				if (trampleCrops(player, false)) {
-					scheduleEventWithDelay(
-						player,
-						Algorithms.RANDOM.nextBetween(
-							Algorithms.divideByFloat(trampleCropsDelayMin, hauntLevel),
-							Algorithms.divideByFloat(trampleCropsDelayMax, hauntLevel)
-						)
-					);
-				} else {
-					// Retry if it is a bad time
-					scheduleEventWithDelay(player, trampleCropsRetryDelay);
-				}
-			},
-			delay, TimeUnit.SECONDS
-		);
+		PlayerData.getPlayerData(player).getSession().getEventTimer("trampleCrops", TrampleCrops::newEventTask).arm(Events.toTicks(delay, TimeUnit.SECONDS));
+	}
+
+	private static Runnable newEventTask(final HauntSession session) {
+		final EntityPlayer player = session.getPlayer();
+		final PlayerData playerData = PlayerData.getPlayerData(player);
+		final Consumer<BlockPos> onSearched = nearestCropPos -> {
+			if (session.isCancelled()) return;
+			if (trampleCrops(player, nearestCropPos)) {
+				retryPolicy.onSuccess(player);
+				scheduleEvent(player);
+			} else {
+				// Retry if it is a bad time, backing off while it keeps failing
+				scheduleEventWithDelay(player, retryPolicy.getRetryDelay(player, trampleCropsRetryDelay));
+			}
+		};
+		return () -> {
+			if (playerData.getHauntLevel() < trampleCropsHauntLevelMin) {
+				scheduleEvent(player); // Reset event as if it passed
+				return;
+			}
+
+			// Search a snapshot of the nearby chunks off the server thread, then finish the event back on it
+			BlockSearch.findNearestBlock(player, cropBlocks, trampleCropsSearchRadius, player.getUuid(), onSearched);
+		};
 	}
 
 	public static boolean trampleCrops(final EntityPlayer player, final boolean overrideHauntLevel) {
@@ -88,18 +95,16 @@ public class TrampleCrops {
 			if (hauntLevel < trampleCropsHauntLevelMin) return true; // Reset event as if it passed
 		}
 
-		// Get nearest crop position
-		BlockPos nearestCropPos = Algorithms.getNearestBlockToEntity(player, cropBlocks, trampleCropsSearchRadius);
-		if (nearestCropPos == null) return false;
+		return trampleCrops(player, Algorithms.getNearestBlockToEntity(player, cropBlocks, trampleCropsSearchRadius));
+	}
 
-		// Players must not see flower get placed
+	public static boolean trampleCrops(final EntityPlayer player, final BlockPos nearestCropPos) {
+		// The block may have changed since it was found
 		final World world = player.getEntityWorld();
-		final List<? extends EntityPlayer> players = world.getPlayers(EntityPlayer.class, new Predicate<EntityPlayer>() {
-			@Override
-			public boolean apply(@Nullable EntityPlayer input) {
-				return true;
-			}
-		});
+		if (nearestCropPos == null || !cropBlocks.contains(world.getBlockState(nearestCropPos).getBlock())) return false;
+
+		// Players must not see flower get placed
+		final List<? extends EntityPlayer> players = world.playerEntities;
 		if (trampleCropsNotSeenConstraint && Algorithms.couldBlockBeSeenByPlayers(players, nearestCropPos)) return false;
 
 		// Plant poppy
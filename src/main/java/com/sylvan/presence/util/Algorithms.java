@@ -1,36 +1,51 @@
 package com.sylvan.presence.util;
 
 import com.sylvan.presence.Presence;
+import com.sylvan.presence.data.PlayerData;
 import net.minecraft.block.Block;
 import net.minecraft.block.SoundType;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.potion.Potion;
-import net.minecraft.potion.PotionEffect;
+import net.minecraft.init.MobEffects;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.RayTraceResult;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Rotations;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.EnumSkyBlock;
 import net.minecraft.world.World;
-import net.minecraftforge.fml.common.registry.ForgeRegistries;
 
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Predicate;
 
 public class Algorithms {
-	public static final RandomHelper RANDOM = new RandomHelper();
+	private static final ThreadLocal<RandomHelper> SHARED_RANDOM = ThreadLocal.withInitial(RandomHelper::new);	// For rolls no player owns. One per thread, since RandomHelper is not thread-safe
 
 	private static int algorithmsCaveDetectionRays = 30;						// The amount of rays to shoot in random directions to determine whether an entity is in a cave
 	private static float algorithmsCaveDetectionMaxNonCaveBlockPercent = 0.0f;	// The percent of blocks a cave detection ray can collide with that are not usually found in a cave before assuming player is in a base
+	private static int algorithmsCaveRoofDepthMin = 3;						// The minimum depth below the highest block in a column for a position to possibly be in a cave, so that bases with thin roofs are ruled out without raycasting
+
+	private static Vec3d[] caveDetectionRayOffsets = new Vec3d[0];	// Evenly spread ray offsets of length 128, from a Fibonacci sphere
+	private static final double MAX_SIGHT_DISTANCE = 127.0;	// Positions farther than this from a player are never seen
+	private static long lookAtQueries = 0;
+	private static long lookAtRejectedByDimension = 0;
+	private static long lookAtRejectedByDistance = 0;
+	private static long lookAtRejectedByViewCone = 0;
+	private static long lookAtRejectedByOcclusion = 0;
+	private static long caveDetectionCalls = 0;
+	private static long caveDetectionShortcuts = 0;
+	private static long caveDetectionRays = 0;
 
 	public static void loadConfig() {
 		try {
 			algorithmsCaveDetectionRays = Presence.config.getOrSetValue("algorithmsCaveDetectionRays", algorithmsCaveDetectionRays).getAsInt();
 			algorithmsCaveDetectionMaxNonCaveBlockPercent = Presence.config.getOrSetValue("algorithmsCaveDetectionMaxNonCaveBlockPercent", algorithmsCaveDetectionMaxNonCaveBlockPercent).getAsFloat();
+			algorithmsCaveRoofDepthMin = Presence.config.getOrSetValue("algorithmsCaveRoofDepthMin", algorithmsCaveRoofDepthMin).getAsInt();
+			caveDetectionRayOffsets = getFibonacciSphere(algorithmsCaveDetectionRays, 128.0);
 		} catch (UnsupportedOperationException e) {
 			Presence.LOGGER.error("Configuration issue for Algorithms.java. Wiping and using default.", e);
 			Presence.config.wipe();
@@ -38,27 +53,16 @@ public class Algorithms {
 		}
 	}
 
-	public static float randomBetween(final float min, final float max) {
-		return min + RANDOM.nextFloat() * (max - min);
+	public static RandomHelper getSharedRandom() {
+		return SHARED_RANDOM.get();
 	}
 
-	public static int divideByFloat(final int dividend, final float divisor) {
-		return (int) (((float) dividend) / Math.max(0.001f, divisor));
+	public static float randomBetween(final RandomHelper random, final float min, final float max) {
+		return random.nextBetween(min, max);
 	}
 
-	public static <K> K randomKeyFromWeightMap(final Map<K, Float> keyWeightMap) {
-		final float totalWeight = keyWeightMap.values().stream().reduce(0.0f, Float::sum);
-		float randomValue = RANDOM.nextFloat() * totalWeight;
-
-		for (final K key : keyWeightMap.keySet()) {
-			randomValue -= keyWeightMap.get(key);
-			if (randomValue <= 0.0f) {
-				return key;
-			}
-		}
-
-		// This should not happen unless the list is empty or total weight is 0
-		return keyWeightMap.keySet().iterator().next();
+	public static int divideByFloat(final int dividend, final float divisor) {
+		return (int) (((float) dividend) / Math.max(0.001f, divisor));
 	}
 
 	public static BlockPos getBlockPosFromVec3d(final Vec3d vec3d) {
@@ -114,22 +118,13 @@ public class Algorithms {
 		return new ResourceLocation(namespace, name);
 	}
 
-	public static RayTraceResult castRayFromEye(final Entity entity, final Vec3d pos) {
-		return entity.getEntityWorld().rayTraceBlocks(
-			entity.getPositionEyes(1),
-			pos
-		);
-	}
-
 	public static boolean couldPosBeSeenByEntity(final Entity entity, final Vec3d pos) {
 		// Check max distance before calculating
-		if (entity.getPositionVector().distanceTo(pos) > 127.0) return false;
+		if (entity.getDistanceSq(pos.x, pos.y, pos.z) > MAX_SIGHT_DISTANCE * MAX_SIGHT_DISTANCE) return false;
 
-		// Check if behind transparent block
-		final RayTraceResult hitResult = castRayFromEye(entity, pos);
-        return hitResult.typeOfHit != RayTraceResult.Type.BLOCK ||
-                !entity.getEntityWorld().getBlockState(hitResult.getBlockPos()).isOpaqueCube();
-    }
+		// Check if behind opaque block
+		return LineOfSight.canSee(entity, pos);
+	}
 
 	public static boolean couldPosBeSeenByPlayers(final List<? extends EntityPlayer> players, final Vec3d pos) {
 		for (final EntityPlayer player : players) {
@@ -138,33 +133,86 @@ public class Algorithms {
 		return false;
 	}
 
-	public static boolean couldBlockBeSeenByPlayers(final List<? extends EntityPlayer> players, final BlockPos pos) {
+	public static boolean couldBlockBeSeenByPlayers(final List<? extends EntityPlayer> players, final BlockPos... positions) {
 		Vec3d towardsPlayerDirection;
 		BlockPos towardsPlayerPos;
-		for (final EntityPlayer player : players) {
-			// Move one block towards player to prevent the block itself from blocking raycast
-			towardsPlayerDirection = getDirectionPosToPos(getVec3dFromBlockPos(pos), player.getPositionEyes(1));
+		for (final BlockPos pos : positions) {
+			for (final EntityPlayer player : players) {
+				// Move one block towards player to prevent the block itself from blocking raycast
+				towardsPlayerDirection = getDirectionPosToPos(getVec3dFromBlockPos(pos), player.getPositionEyes(1));
+
+				towardsPlayerPos = pos.add(
+					(int) Math.signum(towardsPlayerDirection.x),
+					(int) Math.signum(towardsPlayerDirection.y),
+					(int) Math.signum(towardsPlayerDirection.z)
+				);
+
+				if (couldPosBeSeenByEntity(player, getVec3dFromBlockPos(towardsPlayerPos))) return true;
+			}
+		}
+		return false;
+	}
 
-			towardsPlayerPos = pos.add(
-				(int) Math.signum(towardsPlayerDirection.x),
-				(int) Math.signum(towardsPlayerDirection.y),
-				(int) Math.signum(towardsPlayerDirection.z)
-			);
+	// Cheapest checks run first, so the occlusion raycast only runs for positions the entity is facing
+	public static boolean isPositionLookedAtByEntity(final Entity entity, final int dimension, final Vec3d pos, final double dotProductThreshold) {
+		return isPositionLookedAtByEntity(entity, dimension, pos.x, pos.y, pos.z, dotProductThreshold);
+	}
 
-			if (couldPosBeSeenByEntity(player, getVec3dFromBlockPos(towardsPlayerPos))) return true;
+	// Only allocates if the occlusion raycast has to run
+	public static boolean isPositionLookedAtByEntity(final Entity entity, final int dimension, final double x, final double y, final double z, final double dotProductThreshold) {
+		++lookAtQueries;
+		if (entity.dimension != dimension) {
+			++lookAtRejectedByDimension;
+			return false;
 		}
-		return false;
+		if (entity.getDistanceSq(x, y, z) > MAX_SIGHT_DISTANCE * MAX_SIGHT_DISTANCE) {
+			++lookAtRejectedByDistance;
+			return false;
+		}
+
+		// Compare where the entity is looking with where it should be looking, as in Entity.getVectorForRotation
+		final double dx = x - entity.posX, dy = y - (entity.posY + entity.getEyeHeight()), dz = z - entity.posZ;
+		final double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+		final float yaw = -entity.rotationYaw * 0.017453292f - (float) Math.PI;
+		final float pitch = -entity.rotationPitch * 0.017453292f;
+		final float horizontal = -MathHelper.cos(pitch);
+		final double dotProduct = (
+			MathHelper.sin(yaw) * horizontal * dx +
+			MathHelper.sin(pitch) * dy +
+			MathHelper.cos(yaw) * horizontal * dz
+		) / Math.max(length, 1.0e-4);
+		if (dotProduct <= dotProductThreshold) {
+			++lookAtRejectedByViewCone;
+			return false;
+		}
+
+		if (!LineOfSight.canSee(entity, x, y, z)) {
+			++lookAtRejectedByOcclusion;
+			return false;
+		}
+		return true;
 	}
 
-	public static boolean isPositionLookedAtByEntity(final Entity entity, final Vec3d pos, final double dotProductThreshold) {
-		if (!couldPosBeSeenByEntity(entity, pos)) return false;
-		final Vec3d lookingDirection = entity.getLookVec(); // Where entity is actually looking
-		final Vec3d lookAtDirection = getDirectionPosToPos(entity.getPositionEyes(1), pos); // Where entity should be looking
-		final double dotProduct = lookingDirection.dotProduct(lookAtDirection);
-		return dotProduct > dotProductThreshold;
+	public static String getLookAtStats() {
+		return String.format(
+			"Look-at checks: %d queries, rejected by dimension %d, distance %d, view cone %d, occlusion %d",
+			lookAtQueries,
+			lookAtRejectedByDimension,
+			lookAtRejectedByDistance,
+			lookAtRejectedByViewCone,
+			lookAtRejectedByOcclusion
+		);
 	}
 
 	public static boolean couldPlayerStandOnBlock(final World world, final BlockPos blockPos) {
+		final BitSet column = StandableColumns.getColumn(world, blockPos.getX(), blockPos.getZ());
+		if (column != null) {
+			if (!isStandableInColumn(column, blockPos.getY())) return false;
+			if (StandableColumns.isStandable(world, blockPos)) return true;
+			StandableColumns.onBlockChange(world.provider.getDimension(), blockPos);
+			return false;
+		}
+
 		// Check for opaque blocks
 		if (
 			!world.getBlockState(blockPos).isOpaqueCube() ||
@@ -173,27 +221,39 @@ public class Algorithms {
 		) return false;
 
 		// Cast ray from legs position
+		final VoxelRaycast ray = VoxelRaycast.get();
 		Vec3d blockCenterPos = getVec3dFromBlockPos(blockPos.up());
 		Vec3d outsideBlockPos = blockCenterPos.add(new Vec3d(0.45, 0.45, 0.45));
-		RayTraceResult hitResult = world.rayTraceBlocks(
-			blockCenterPos,
-			outsideBlockPos
-		);
-        assert hitResult != null;
-        if (hitResult.typeOfHit != RayTraceResult.Type.MISS) return false;
+		if (ray.cast(world, blockCenterPos, outsideBlockPos, VoxelRaycast.SOLID)) return false;
 
 		// Cast ray from eye position
 		blockCenterPos = blockCenterPos.add(new Vec3d(0, 1, 0));
 		outsideBlockPos = outsideBlockPos.add(new Vec3d(0, 1, 0));
-		hitResult = world.rayTraceBlocks(
-			blockCenterPos,
-			outsideBlockPos
-		);
-        assert hitResult != null;
-        return hitResult.typeOfHit == RayTraceResult.Type.MISS;
-    }
+		return !ray.cast(world, blockCenterPos, outsideBlockPos, VoxelRaycast.SOLID);
+	}
+
+	private static boolean isStandableInColumn(final BitSet column, final int y) {
+		return y >= 0 && y < 256 && column.get(y);
+	}
+
+	// Walks the column the same way as the block by block loops below, but over its cached standable levels
+	private static int walkStandableColumn(final BitSet column, int y, final int minY, final int maxY, final boolean downFirst) {
+		if (downFirst) {
+			while (!isStandableInColumn(column, y) && (y >= minY)) --y;
+			while (!isStandableInColumn(column, y) && (y <= maxY)) ++y;
+		} else {
+			while (!isStandableInColumn(column, y) && (y <= maxY)) ++y;
+			while (!isStandableInColumn(column, y) && (y >= minY)) --y;
+		}
+		return y;
+	}
 
 	public static BlockPos getNearestStandableBlockPos(final World world, BlockPos blockPos, final int minY, final int maxY) {
+		final BitSet column = StandableColumns.getColumn(world, blockPos.getX(), blockPos.getZ());
+		if (column != null) {
+			return new BlockPos(blockPos.getX(), walkStandableColumn(column, blockPos.getY(), minY, maxY, true), blockPos.getZ());
+		}
+
 		while (!couldPlayerStandOnBlock(world, blockPos) && (blockPos.getY() >= minY)) {
 			blockPos = blockPos.down();
 		}
@@ -206,8 +266,14 @@ public class Algorithms {
 	public static BlockPos getNearestStandableBlockPosTowardsEntity(final Entity entity, BlockPos blockPos, final int minY, final int maxY) {
 		final World world = entity.getEntityWorld();
 		final BlockPos entityPos = entity.getPosition();
-		if (blockPos.getY() > entityPos.getY()) {
-			// Above player, try moving down first
+		// Above player, try moving down first. Below player, try moving up first
+		final boolean downFirst = blockPos.getY() > entityPos.getY();
+		final BitSet column = StandableColumns.getColumn(world, blockPos.getX(), blockPos.getZ());
+		if (column != null) {
+			return new BlockPos(blockPos.getX(), walkStandableColumn(column, blockPos.getY(), minY, maxY, downFirst), blockPos.getZ());
+		}
+
+		if (downFirst) {
 			while (!couldPlayerStandOnBlock(world, blockPos) && (blockPos.getY() >= minY)) {
 				blockPos = blockPos.down();
 			}
@@ -215,7 +281,6 @@ public class Algorithms {
 				blockPos = blockPos.up();
 			}
 		} else {
-			// Below player, try moving up first
 			while (!couldPlayerStandOnBlock(world, blockPos) && (blockPos.getY() <= maxY)) {
 				blockPos = blockPos.up();
 			}
@@ -226,11 +291,11 @@ public class Algorithms {
 		return blockPos;
 	}
 
-	public static Vec3d getRandomDirection(final boolean randomY) {
+	public static Vec3d getRandomDirection(final RandomHelper random, final boolean randomY) {
 		return new Vec3d(
-			RANDOM.nextDouble() * 2 - 1,
-			randomY ? (RANDOM.nextDouble() * 2 - 1) : 0,
-			RANDOM.nextDouble() * 2 - 1
+			random.nextDouble() * 2 - 1,
+			randomY ? (random.nextDouble() * 2 - 1) : 0,
+			random.nextDouble() * 2 - 1
 		).normalize();
 	}
 
@@ -245,8 +310,12 @@ public class Algorithms {
 	}
 
 	public static Vec3d getRandomPosNearEntity(final Entity entity, final int distanceMin, final int distanceMax, final boolean randomY) {
-		final Vec3d randomDirection = getRandomDirection(randomY);
-		final int distance = RANDOM.nextBetween(distanceMin, distanceMax);
+		return getRandomPosNearEntity(PlayerData.getRandom(entity), entity, distanceMin, distanceMax, randomY);
+	}
+
+	public static Vec3d getRandomPosNearEntity(final RandomHelper random, final Entity entity, final int distanceMin, final int distanceMax, final boolean randomY) {
+		final Vec3d randomDirection = getRandomDirection(random, randomY);
+		final int distance = random.nextBetween(distanceMin, distanceMax);
 
 		// Scale the direction vector by the random distance magnitude
 		final Vec3d randomOffset = multiplyVec3d(randomDirection, distance);
@@ -283,60 +352,78 @@ public class Algorithms {
 		);
 	}
 
+	// Answers from sky light and the height map the chunk already keeps
+	public static boolean isExposedToSky(final World world, final BlockPos pos, final int maxSkyLightLevel) {
+		// Seeing the sky means full sky light, so the light lookup is only needed below the height map
+		if (world.canSeeSky(pos)) return maxSkyLightLevel < 15;
+		return world.getLightFor(EnumSkyBlock.SKY, pos) > maxSkyLightLevel;
+	}
+
+	// False when the position is certainly not underground, so that only ambiguous positions need raycasting
+	public static boolean couldBeUnderground(final World world, final BlockPos pos) {
+		if (isExposedToSky(world, pos, 0)) return false;
+		return world.getHeight(pos.getX(), pos.getZ()) - pos.getY() > algorithmsCaveRoofDepthMin;
+	}
+
 	public static boolean isEntityInCave(final Entity entity) {
 		final World world = entity.getEntityWorld();
 		final BlockPos entityPos = entity.getPosition();
-		if (world.getLight(entityPos) > 0) return false;
+		++caveDetectionCalls;
+		if (world.getLight(entityPos) > 0 || !couldBeUnderground(world, entityPos)) {
+			++caveDetectionShortcuts;
+			return false;
+		}
 
-		// Raycast in cardinal directions
+		final VoxelRaycast ray = VoxelRaycast.get();
+		final Vec3d eyePos = entity.getPositionEyes(1);
+		// More non-cave blocks than this means the player is in a base
+		final float maxNonCaveBlockCount = algorithmsCaveDetectionMaxNonCaveBlockPercent * Math.max(1, caveDetectionRayOffsets.length + 6);
 		int nonCaveBlockCount = 0;
-		RayTraceResult ray = castRayFromEye(entity, getVec3dFromBlockPos(entityPos.up(128)));
-		BlockPos rayPos = ray.getBlockPos();
-		IBlockState state = world.getBlockState(rayPos);
-		if ((ray.typeOfHit != RayTraceResult.Type.BLOCK)) return false;
-		if (!isCaveBlockSound(state.getBlock().getSoundType(state, world, rayPos, null))) ++nonCaveBlockCount;
-
-		ray = castRayFromEye(entity, getVec3dFromBlockPos(entityPos.down(128)));
-		rayPos = ray.getBlockPos();
-		state = world.getBlockState(rayPos);
-		if ((ray.typeOfHit != RayTraceResult.Type.BLOCK)) return false;
-		if (!isCaveBlockSound(state.getBlock().getSoundType(state, world, rayPos, null))) ++nonCaveBlockCount;
-
-		ray = castRayFromEye(entity, getVec3dFromBlockPos(entityPos.north(128)));
-		rayPos = ray.getBlockPos();
-		state = world.getBlockState(rayPos);
-		if ((ray.typeOfHit != RayTraceResult.Type.BLOCK)) return false;
-		if (!isCaveBlockSound(state.getBlock().getSoundType(state, world, rayPos, null))) ++nonCaveBlockCount;
-
-		ray = castRayFromEye(entity, getVec3dFromBlockPos(entityPos.south(128)));
-		rayPos = ray.getBlockPos();
-		state = world.getBlockState(rayPos);
-		if ((ray.typeOfHit != RayTraceResult.Type.BLOCK)) return false;
-		if (!isCaveBlockSound(state.getBlock().getSoundType(state, world, rayPos, null))) ++nonCaveBlockCount;
-
-		ray = castRayFromEye(entity, getVec3dFromBlockPos(entityPos.east(128)));
-		rayPos = ray.getBlockPos();
-		state = world.getBlockState(rayPos);
-		if ((ray.typeOfHit != RayTraceResult.Type.BLOCK)) return false;
-		if (!isCaveBlockSound(state.getBlock().getSoundType(state, world, rayPos, null))) ++nonCaveBlockCount;
-
-		ray = castRayFromEye(entity, getVec3dFromBlockPos(entityPos.west(128)));
-		rayPos = ray.getBlockPos();
-		state = world.getBlockState(rayPos);
-		if ((ray.typeOfHit != RayTraceResult.Type.BLOCK)) return false;
-		if (!isCaveBlockSound(state.getBlock().getSoundType(state, world, rayPos, null))) ++nonCaveBlockCount;
-
-		// Cast rays in random directions. If they all hit, the sky cannot be seen.
-		for (int i = 0; i < algorithmsCaveDetectionRays; ++i) {
-			ray = castRayFromEye(entity, getRandomPosNearEntity(entity, 128, 128, true));
-			rayPos = ray.getBlockPos();
-			state = world.getBlockState(rayPos);
-			if (!isCaveBlockSound(state.getBlock().getSoundType(state, world, rayPos, null))) ++nonCaveBlockCount;
+
+		// Raycast in cardinal directions
+		for (final EnumFacing facing : EnumFacing.VALUES) {
+			++caveDetectionRays;
+			if (!ray.cast(world, eyePos, getVec3dFromBlockPos(entityPos.offset(facing, 128)), VoxelRaycast.OPAQUE)) return false;
+			if (!isCaveBlockSound(ray.getHitSoundType()) && ++nonCaveBlockCount > maxNonCaveBlockCount) return false;
 		}
 
-		// If over 5% of hit blocks are not normally found in a cave, assume player is in a base
-        return !(((float) nonCaveBlockCount / (float) Math.max(1, algorithmsCaveDetectionRays + 6)) > algorithmsCaveDetectionMaxNonCaveBlockPercent);
-    }
+		// Cast rays evenly spread in every direction. If they all hit, the sky cannot be seen.
+		for (int i = 0; i < caveDetectionRayOffsets.length; ++i) {
+			// Even if every remaining ray hit a non-cave block, the player would still be in a cave
+			if (nonCaveBlockCount + (caveDetectionRayOffsets.length - i) <= maxNonCaveBlockCount) return true;
+			++caveDetectionRays;
+			if (
+				(
+					!ray.cast(world, eyePos, eyePos.add(caveDetectionRayOffsets[i]), VoxelRaycast.OPAQUE) ||
+					!isCaveBlockSound(ray.getHitSoundType())
+				) &&
+				++nonCaveBlockCount > maxNonCaveBlockCount
+			) return false;
+		}
+		return true;
+	}
+
+	private static Vec3d[] getFibonacciSphere(final int count, final double radius) {
+		final Vec3d[] points = new Vec3d[Math.max(0, count)];
+		final double goldenAngle = Math.PI * (3.0 - Math.sqrt(5.0));
+		double y, ringRadius, theta;
+		for (int i = 0; i < points.length; ++i) {
+			y = 1.0 - 2.0 * (i + 0.5) / points.length;
+			ringRadius = Math.sqrt(1.0 - y * y);
+			theta = goldenAngle * i;
+			points[i] = new Vec3d(Math.cos(theta) * ringRadius * radius, y * radius, Math.sin(theta) * ringRadius * radius);
+		}
+		return points;
+	}
+
+	public static String getCaveDetectionStats() {
+		return String.format(
+			"Cave detection: %d checks, %d answered without rays, %.1f rays per raycast check",
+			caveDetectionCalls,
+			caveDetectionShortcuts,
+			caveDetectionRays / (double) Math.max(1, caveDetectionCalls - caveDetectionShortcuts)
+		);
+	}
 
 	public static Vec3d getDirectionPosToPos(final Vec3d pos1, final Vec3d pos2) {
 		return pos2.subtract(pos1).normalize();
@@ -349,91 +436,62 @@ public class Algorithms {
 	}
 
 	public static Rotations directionToAngles(final Vec3d direction) {
-		final float pitch = (float) -Math.toDegrees(Math.atan2(
-			direction.y,
-			Math.sqrt((direction.x * direction.x) + (direction.z * direction.z))
-		));
-		final float yaw = (float) Math.toDegrees(Math.atan2(direction.z, direction.x)) - 90.0f;
-		return new Rotations(pitch, yaw, 0.0f);
-	}
-
-	public static boolean isEntityInDarkness(final EntityLivingBase entity, final int maxLightLevel) {
-		if (entity.getEntityWorld().getLight(entity.getPosition()) > maxLightLevel) return false;
-		final Potion nightVision = ForgeRegistries.POTIONS.getValue(new ResourceLocation("minecraft:night_vision"));
-		for (final PotionEffect effect : entity.getActivePotionEffects()) {
-			if (effect.getPotion() == nightVision) return false;
-		}
-		return true;
+		return new Rotations(directionToPitch(direction.x, direction.y, direction.z), directionToYaw(direction.x, direction.z), 0.0f);
 	}
 
-	public static BlockPos getNearestBlockToEntity(final Entity entity, final Block blockType, final int range) {
-		final World world = entity.getEntityWorld();
-		final BlockPos entityBlockPos = entity.getPosition();
-		final Vec3d entityPos = entity.getPositionVector();
-		double closestBlockDistance = 0, checkDistance;
-		BlockPos closestBlockPos = null, checkPos;
-		for (int x = -range; x < range; ++x) {
-			for (int y = -range; y < range; ++y) {
-				for (int z = -range; z < range; ++z) {
-					checkPos = entityBlockPos.add(x, y, z);
-					if (world.getBlockState(checkPos).getBlock() == blockType) {
-						// Set first check to closestBlockPos
-						if (closestBlockPos == null) {
-							closestBlockPos = checkPos;
-							closestBlockDistance = entityPos.distanceTo(getVec3dFromBlockPos(closestBlockPos));
-							continue;
-						}
+	public static float directionToPitch(final double x, final double y, final double z) {
+		return (float) -Math.toDegrees(Math.atan2(y, Math.sqrt((x * x) + (z * z))));
+	}
 
-						// Check if this block is closer than the previous one
-						checkDistance = entityPos.distanceTo(getVec3dFromBlockPos(closestBlockPos));
-						if (checkDistance < closestBlockDistance) {
-							checkDistance = entityPos.distanceTo(getVec3dFromBlockPos(closestBlockPos));
-							closestBlockDistance = checkDistance;
-							closestBlockPos = checkPos;
-						}
-					}
-				}
-			}
-		}
-		return closestBlockPos;
+	public static float directionToYaw(final double x, final double z) {
+		return (float) Math.toDegrees(Math.atan2(z, x)) - 90.0f;
 	}
 
-	public static boolean isBlockOfBlockTypes(final Block block, final List<Block> blockTypes) {
-		for (final Block blockType : blockTypes) {
-			if (block == blockType) return true;
-		}
-		return false;
+	public static boolean hasNightVision(final EntityLivingBase entity) {
+		// MobEffects is resolved once at startup, so there is no registry lookup per call
+		return entity.isPotionActive(MobEffects.NIGHT_VISION);
 	}
 
-	public static BlockPos getNearestBlockToEntity(final Entity entity, final List<Block> blockTypes, final int range) {
-		final World world = entity.getEntityWorld();
-		final BlockPos entityBlockPos = entity.getPosition();
-		final Vec3d entityPos = entity.getPositionVector();
-		double closestBlockDistance = 0, checkDistance;
-		BlockPos closestBlockPos = null, checkPos;
-		for (int x = -range; x < range; ++x) {
-			for (int y = -range; y < range; ++y) {
-				for (int z = -range; z < range; ++z) {
-					checkPos = entityBlockPos.add(x, y, z);
-					if (isBlockOfBlockTypes(world.getBlockState(checkPos).getBlock(), blockTypes)) {
-						// Set first check to closestBlockPos
-						if (closestBlockPos == null) {
-							closestBlockPos = checkPos;
-							closestBlockDistance = entityPos.distanceTo(getVec3dFromBlockPos(closestBlockPos));
-							continue;
-						}
+	public static BlockPos getNearestBlockToEntity(final Entity entity, final Block blockType, final int range) {
+		return getNearestBlockToEntity(entity, block -> block == blockType, range);
+	}
 
-						// Check if this block is closer than the previous one
-						checkDistance = entityPos.distanceTo(getVec3dFromBlockPos(checkPos));
-						if (checkDistance < closestBlockDistance) {
-							checkDistance = entityPos.distanceTo(getVec3dFromBlockPos(closestBlockPos));
+	public static BlockPos getNearestBlockToEntity(final Entity entity, final BlockCategory blockTypes, final int range) {
+		return getNearestBlockToEntity(entity, blockTypes::contains, range);
+	}
+
+	// Walks shells of growing radius outward from the entity, stopping once no farther shell could hold a closer block
+	private static BlockPos getNearestBlockToEntity(final Entity entity, final Predicate<Block> isBlockType, final int range) {
+		final BlockPos entityBlockPos = entity.getPosition();
+		// Sections whose palette holds none of the blocks, or that are not loaded, are never read
+		final SectionFilter sections = SectionFilter.create(entity.getEntityWorld(), entityBlockPos, range, isBlockType);
+		if (sections.isEmpty()) return null;
+		final int originX = entityBlockPos.getX(), originY = entityBlockPos.getY(), originZ = entityBlockPos.getZ();
+		int closestBlockDistance = Integer.MAX_VALUE, checkDistance, closestX = 0, closestY = 0, closestZ = 0, y, dzStep;
+		IBlockState checkState;
+		for (int r = 0; r <= range; ++r) {
+			// Every block in this shell is at least r away
+			if (closestBlockDistance <= r * r) break;
+			for (int dy = -r; dy <= r; ++dy) {
+				y = originY + dy;
+				if (y < 0 || y > 255) continue;
+				for (int dx = -r; dx <= r; ++dx) {
+					// Away from the x and y faces, only the two z faces belong to this shell
+					dzStep = (dy == -r || dy == r || dx == -r || dx == r) ? 1 : 2 * r;
+					for (int dz = -r; dz <= r; dz += dzStep) {
+						checkDistance = dx * dx + dy * dy + dz * dz;
+						if (checkDistance >= closestBlockDistance) continue;
+						checkState = sections.getBlockState(originX + dx, y, originZ + dz);
+						if (checkState != null && isBlockType.test(checkState.getBlock())) {
 							closestBlockDistance = checkDistance;
-							closestBlockPos = checkPos;
+							closestX = originX + dx;
+							closestY = y;
+							closestZ = originZ + dz;
 						}
 					}
 				}
 			}
 		}
-		return closestBlockPos;
+		return (closestBlockDistance == Integer.MAX_VALUE) ? null : new BlockPos(closestX, closestY, closestZ);
 	}
 }
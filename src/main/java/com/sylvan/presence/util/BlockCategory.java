@@ -0,0 +1,107 @@
+package com.sylvan.presence.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.sylvan.presence.Presence;
+import net.minecraft.block.Block;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.common.registry.ForgeRegistries;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// A set of blocks keyed by block ID, compiled from block IDs and registry name patterns in the config
+public class BlockCategory {
+	private static final List<BlockCategory> indexedCategories = new ArrayList<>();
+
+	private final String name;
+	private volatile BitSet blockIds = new BitSet();	// Replaced whole on compile, so block search workers never see a half-built set
+
+	// Indexed categories have their positions remembered per chunk by BlockIndex, so they should be rare blocks
+	public BlockCategory(final String name, final boolean indexed) {
+		this.name = name;
+		if (indexed) indexedCategories.add(this);
+	}
+
+	public static List<BlockCategory> getIndexedCategories() {
+		return Collections.unmodifiableList(indexedCategories);
+	}
+
+	public static boolean isIndexed(final Block block) {
+		final int blockId = Block.getIdFromBlock(block);
+		for (final BlockCategory category : indexedCategories) {
+			if (category.contains(blockId)) return true;
+		}
+		return false;
+	}
+
+	public static JsonArray toJsonArray(final String... entries) {
+		final JsonArray array = new JsonArray();
+		for (final String entry : entries) {
+			array.add(entry);
+		}
+		return array;
+	}
+
+	// Entries are block IDs such as "minecraft:wooden_door", or patterns where * matches anything, such as "*:*_door"
+	public void compile(final JsonArray entries) {
+		final BitSet compiled = new BitSet();
+		String entry;
+		for (final JsonElement element : entries) {
+			// getAsString would throw for arrays and objects, which config edits can leave here
+			if (!element.isJsonPrimitive()) {
+				Presence.LOGGER.warn("Skipping " + element + " in block category \"" + name + "\", entries must be strings.");
+				continue;
+			}
+			entry = withNamespace(element.getAsString());
+
+			if (entry.contains("*")) {
+				final Pattern pattern = toPattern(entry);
+				boolean matched = false;
+				for (final Block block : ForgeRegistries.BLOCKS.getValuesCollection()) {
+					if (!pattern.matcher(block.getRegistryName().toString()).matches()) continue;
+					compiled.set(Block.getIdFromBlock(block));
+					matched = true;
+				}
+				if (!matched) Presence.LOGGER.warn("No blocks match \"" + entry + "\" in block category \"" + name + "\".");
+				continue;
+			}
+
+			final ResourceLocation blockId = Algorithms.getIdentifierFromString(entry);
+			if (!ForgeRegistries.BLOCKS.containsKey(blockId)) {
+				Presence.LOGGER.warn("Could not find block \"" + entry + "\" in block category \"" + name + "\".");
+				continue;
+			}
+			compiled.set(Block.getIdFromBlock(ForgeRegistries.BLOCKS.getValue(blockId)));
+		}
+		blockIds = compiled;
+	}
+
+	static String withNamespace(final String entry) {
+		return entry.contains(":") ? entry : "minecraft:" + entry;
+	}
+
+	// Everything but * is matched literally
+	static Pattern toPattern(final String entry) {
+		return Pattern.compile(("\\Q" + entry + "\\E").replace("*", "\\E.*\\Q"));
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean contains(final Block block) {
+		return blockIds.get(Block.getIdFromBlock(block));
+	}
+
+	public boolean contains(final int blockId) {
+		return blockIds.get(blockId);
+	}
+
+	public boolean isEmpty() {
+		return blockIds.isEmpty();
+	}
+}
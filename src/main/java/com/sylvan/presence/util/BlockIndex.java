@@ -0,0 +1,219 @@
+package com.sylvan.presence.util;
+
+import com.sylvan.presence.Presence;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Positions of every block in each BlockCategory, per loaded chunk. Built lazily by searches and only touched on the server thread
+public class BlockIndex {
+	// Config
+	public static boolean blockIndexEnabled = true;			// Whether block searches remember the positions of doors, chests and crops in each chunk instead of rescanning it
+	private static int blockIndexMaxPositionsPerChunk = 256;	// The maximum positions remembered per category in each chunk. Chunks above this are scanned instead
+
+	private static final Map<Integer, Map<Long, ChunkIndex>> dimensions = new HashMap<>();
+	private static long builtChunks = 0;
+	private static long discardedBuilds = 0;
+
+	public static void loadConfig() {
+		try {
+			blockIndexEnabled = Presence.config.getOrSetValue("blockIndexEnabled", blockIndexEnabled).getAsBoolean();
+			blockIndexMaxPositionsPerChunk = Presence.config.getOrSetValue("blockIndexMaxPositionsPerChunk", blockIndexMaxPositionsPerChunk).getAsInt();
+		} catch (UnsupportedOperationException e) {
+			Presence.LOGGER.error("Configuration issue for BlockIndex.java. Wiping and using default values.", e);
+			Presence.config.wipe();
+			Presence.initConfig();
+		}
+	}
+
+	private static Map<Long, ChunkIndex> getChunks(final int dimension) {
+		return dimensions.computeIfAbsent(dimension, key -> new HashMap<>());
+	}
+
+	// Returns null if the chunk has not been indexed yet
+	public static ChunkIndex getChunkIndex(final int dimension, final int chunkX, final int chunkZ) {
+		final Map<Long, ChunkIndex> chunks = dimensions.get(dimension);
+		if (chunks == null) return null;
+		final ChunkIndex index = chunks.get(ChunkPos.asLong(chunkX, chunkZ));
+		return (index == null || !index.built) ? null : index;
+	}
+
+	public static boolean isBuilding(final int dimension, final int chunkX, final int chunkZ) {
+		final Map<Long, ChunkIndex> chunks = dimensions.get(dimension);
+		if (chunks == null) return false;
+		final ChunkIndex index = chunks.get(ChunkPos.asLong(chunkX, chunkZ));
+		return index != null && !index.built;
+	}
+
+	// Reserves the chunk so that block changes made while the index is built off-thread can be detected
+	public static ChunkIndex beginBuild(final int dimension, final int chunkX, final int chunkZ) {
+		final ChunkIndex index = new ChunkIndex(chunkX, chunkZ);
+		getChunks(dimension).put(ChunkPos.asLong(chunkX, chunkZ), index);
+		return index;
+	}
+
+	// May run on any thread, as long as the index is not yet published with finishBuild
+	public static void fill(final ChunkIndex index, final ChunkSnapshot snapshot) {
+		int blockId;
+		for (int sectionY = 0; sectionY < 16; ++sectionY) {
+			if (snapshot.isSectionEmpty(sectionY)) continue;
+			for (int y = sectionY << 4; y < (sectionY + 1) << 4; ++y) {
+				for (int z = 0; z < 16; ++z) {
+					for (int x = 0; x < 16; ++x) {
+						blockId = snapshot.getBlockId(x, y, z);
+						if (blockId == 0) continue;
+						for (final BlockCategory category : BlockCategory.getIndexedCategories()) {
+							if (category.contains(blockId)) index.getEntries(category).add(x, y, z);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	public static void finishBuild(final int dimension, final ChunkIndex index) {
+		final Map<Long, ChunkIndex> chunks = getChunks(dimension);
+		final long key = ChunkPos.asLong(index.chunkX, index.chunkZ);
+		// Superseded by another build or dropped when the chunk unloaded
+		if (chunks.get(key) != index) return;
+		if (index.dirty) {
+			// A block changed after the snapshot was taken, so the next search builds it again
+			chunks.remove(key);
+			++discardedBuilds;
+			return;
+		}
+		index.built = true;
+		++builtChunks;
+	}
+
+	public static void onBlockChange(final int dimension, final BlockPos pos, final IBlockState state) {
+		final Map<Long, ChunkIndex> chunks = dimensions.get(dimension);
+		if (chunks == null) return;
+		final ChunkIndex index = chunks.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+		if (index == null) return;
+		if (!index.built) {
+			index.dirty = true;
+			return;
+		}
+
+		final int x = pos.getX() & 15;
+		final int z = pos.getZ() & 15;
+		for (final BlockCategory category : BlockCategory.getIndexedCategories()) {
+			final Entries entries = index.getEntries(category);
+			entries.remove(x, pos.getY(), z);
+			if (category.contains(state.getBlock())) entries.add(x, pos.getY(), z);
+		}
+	}
+
+	public static void onChunkUnload(final int dimension, final int chunkX, final int chunkZ) {
+		final Map<Long, ChunkIndex> chunks = dimensions.get(dimension);
+		if (chunks != null) chunks.remove(ChunkPos.asLong(chunkX, chunkZ));
+	}
+
+	public static void onWorldUnload(final int dimension) {
+		dimensions.remove(dimension);
+	}
+
+	public static void clear() {
+		dimensions.clear();
+	}
+
+	public static String getStats() {
+		int chunkCount = 0, positions = 0, overflowed = 0;
+		long bytes = 0;
+		for (final Map<Long, ChunkIndex> chunks : dimensions.values()) {
+			for (final ChunkIndex index : chunks.values()) {
+				if (!index.built) continue;
+				++chunkCount;
+				for (final Entries entries : index.entries.values()) {
+					positions += entries.size;
+					bytes += entries.positions.length * 4L;
+					if (entries.overflowed) ++overflowed;
+				}
+			}
+		}
+		return String.format(
+			"Block index: %d chunks, %d positions in ~%.1fKiB (cap %d per category per chunk), %d overflowed, %d built, %d discarded",
+			chunkCount,
+			positions,
+			bytes / 1024.0,
+			blockIndexMaxPositionsPerChunk,
+			overflowed,
+			builtChunks,
+			discardedBuilds
+		);
+	}
+
+	public static class ChunkIndex {
+		private final int chunkX;
+		private final int chunkZ;
+		private final Map<BlockCategory, Entries> entries = new HashMap<>();
+		private boolean built = false;
+		private boolean dirty = false;
+
+		private ChunkIndex(final int chunkX, final int chunkZ) {
+			this.chunkX = chunkX;
+			this.chunkZ = chunkZ;
+		}
+
+		public Entries getEntries(final BlockCategory category) {
+			return entries.computeIfAbsent(category, key -> new Entries());
+		}
+	}
+
+	public static class Entries {
+		private int[] positions = new int[4];	// Chunk-local positions packed as y << 8 | z << 4 | x
+		private int size = 0;
+		private boolean overflowed = false;		// Too many positions to remember, so the chunk must be scanned
+
+		private void add(final int x, final int y, final int z) {
+			if (overflowed) return;
+			if (size >= blockIndexMaxPositionsPerChunk) {
+				overflowed = true;
+				positions = new int[0];
+				size = 0;
+				return;
+			}
+			if (size == positions.length) positions = Arrays.copyOf(positions, Math.min(blockIndexMaxPositionsPerChunk, size * 2));
+			positions[size++] = (y << 8) | (z << 4) | x;
+		}
+
+		private void remove(final int x, final int y, final int z) {
+			final int packed = (y << 8) | (z << 4) | x;
+			for (int i = 0; i < size; ++i) {
+				if (positions[i] == packed) {
+					positions[i] = positions[--size];
+					return;
+				}
+			}
+		}
+
+		public void removeAt(final int i) {
+			positions[i] = positions[--size];
+		}
+
+		public boolean isOverflowed() {
+			return overflowed;
+		}
+
+		public int size() {
+			return size;
+		}
+
+		public int getX(final int i) {
+			return positions[i] & 15;
+		}
+
+		public int getY(final int i) {
+			return positions[i] >>> 8;
+		}
+
+		public int getZ(final int i) {
+			return (positions[i] >> 4) & 15;
+		}
+	}
+}
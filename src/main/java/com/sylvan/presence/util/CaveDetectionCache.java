@@ -0,0 +1,131 @@
+package com.sylvan.presence.util;
+
+import com.sylvan.presence.Presence;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+// Remembers one player's last cave verdict until it expires, the player moves away or blocks change nearby. Only used on the server thread
+public class CaveDetectionCache {
+	// Config
+	private static boolean caveCacheEnabled = true;		// Whether cave detection results are reused instead of casting every ray again
+	private static int caveCacheTtl = 60 * 5;		// The time in seconds a cave detection result is reused for
+	private static int caveCacheMoveDistance = 8;		// The distance a player must move to detect caves again
+	private static int caveCacheBlockChangeDistance = 16;	// The distance from the player within which a block change forces caves to be detected again
+
+	// Every valid verdict by dimension and chunk, so a block change only checks the verdicts near it
+	private static final Map<Integer, Map<Long, Set<CaveDetectionCache>>> verdictsByChunk = new HashMap<>();
+	private static long hits = 0;
+	private static long misses = 0;
+	private static long invalidations = 0;
+
+	private boolean valid = false;
+	private boolean inCave;
+	private int dimension;
+	private BlockPos pos;
+	private long expiryTick;
+
+	public static void loadConfig() {
+		try {
+			caveCacheEnabled = Presence.config.getOrSetValue("caveCacheEnabled", caveCacheEnabled).getAsBoolean();
+			caveCacheTtl = Presence.config.getOrSetValue("caveCacheTtl", caveCacheTtl).getAsInt();
+			caveCacheMoveDistance = Presence.config.getOrSetValue("caveCacheMoveDistance", caveCacheMoveDistance).getAsInt();
+			caveCacheBlockChangeDistance = Presence.config.getOrSetValue("caveCacheBlockChangeDistance", caveCacheBlockChangeDistance).getAsInt();
+		} catch (UnsupportedOperationException e) {
+			Presence.LOGGER.error("Configuration issue for CaveDetectionCache.java. Wiping and using default values.", e);
+			Presence.config.wipe();
+			Presence.initConfig();
+		}
+	}
+
+	// Whether isEntityInCave would reuse the last verdict instead of casting rays
+	public boolean hasVerdict(final Entity entity) {
+		return (
+			caveCacheEnabled &&
+			valid &&
+			dimension == entity.getEntityWorld().provider.getDimension() &&
+			entity.getEntityWorld().getTotalWorldTime() < expiryTick &&
+			pos.distanceSq(entity.getPosition()) <= (double) caveCacheMoveDistance * caveCacheMoveDistance
+		);
+	}
+
+	public boolean isEntityInCave(final Entity entity) {
+		if (!caveCacheEnabled) return Algorithms.isEntityInCave(entity);
+
+		if (hasVerdict(entity)) {
+			++hits;
+			return inCave;
+		}
+
+		++misses;
+		inCave = Algorithms.isEntityInCave(entity);
+		invalidate();
+		dimension = entity.getEntityWorld().provider.getDimension();
+		pos = entity.getPosition();
+		expiryTick = entity.getEntityWorld().getTotalWorldTime() + caveCacheTtl * 20L;
+		valid = true;
+		verdictsByChunk.computeIfAbsent(dimension, key -> new HashMap<>()).computeIfAbsent(getChunkKey(pos), key -> new HashSet<>()).add(this);
+		return inCave;
+	}
+
+	// Forgets the verdict, for when its player stops being tracked
+	public void invalidate() {
+		if (!valid) return;
+		valid = false;
+		final Map<Long, Set<CaveDetectionCache>> chunks = verdictsByChunk.get(dimension);
+		if (chunks == null) return;
+		final long chunkKey = getChunkKey(pos);
+		final Set<CaveDetectionCache> verdicts = chunks.get(chunkKey);
+		if (verdicts == null) return;
+		verdicts.remove(this);
+		if (verdicts.isEmpty()) chunks.remove(chunkKey);
+	}
+
+	public static void onBlockChange(final int changedDimension, final BlockPos changedPos) {
+		final Map<Long, Set<CaveDetectionCache>> chunks = verdictsByChunk.get(changedDimension);
+		if (chunks == null || chunks.isEmpty()) return;
+
+		// Only the chunks within caveCacheBlockChangeDistance of the change can hold a verdict it affects
+		final double maxDistanceSq = (double) caveCacheBlockChangeDistance * caveCacheBlockChangeDistance;
+		final int minChunkX = (changedPos.getX() - caveCacheBlockChangeDistance) >> 4;
+		final int maxChunkX = (changedPos.getX() + caveCacheBlockChangeDistance) >> 4;
+		final int minChunkZ = (changedPos.getZ() - caveCacheBlockChangeDistance) >> 4;
+		final int maxChunkZ = (changedPos.getZ() + caveCacheBlockChangeDistance) >> 4;
+		for (int chunkX = minChunkX; chunkX <= maxChunkX; ++chunkX) {
+			for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; ++chunkZ) {
+				final long chunkKey = ChunkPos.asLong(chunkX, chunkZ);
+				final Set<CaveDetectionCache> verdicts = chunks.get(chunkKey);
+				if (verdicts == null) continue;
+				final Iterator<CaveDetectionCache> it = verdicts.iterator();
+				while (it.hasNext()) {
+					final CaveDetectionCache cache = it.next();
+					if (cache.pos.distanceSq(changedPos) > maxDistanceSq) continue;
+					cache.valid = false;
+					it.remove();
+					++invalidations;
+				}
+				if (verdicts.isEmpty()) chunks.remove(chunkKey);
+			}
+		}
+	}
+
+	private static long getChunkKey(final BlockPos pos) {
+		return ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+	}
+
+	public static String getStats() {
+		return String.format(
+			"Cave detection cache: %d hits, %d misses (%.1f%% hit rate), %d invalidated by block changes",
+			hits,
+			misses,
+			100.0 * hits / Math.max(1, hits + misses),
+			invalidations
+		);
+	}
+}
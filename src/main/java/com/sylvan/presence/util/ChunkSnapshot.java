@@ -0,0 +1,79 @@
+package com.sylvan.presence.util;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.NibbleArray;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import java.util.function.Predicate;
+
+public class ChunkSnapshot {
+	private final int chunkX;
+	private final int chunkZ;
+	private final Section[] sections = new Section[16];
+	private int copiedSections = 0;
+
+	private ChunkSnapshot(final int chunkX, final int chunkZ) {
+		this.chunkX = chunkX;
+		this.chunkZ = chunkZ;
+	}
+
+	// Must be called on the server thread. Only the raw palette data is copied, so this is far cheaper than searching it.
+	// Sections whose palette holds no block wanted by isBlockType are left out
+	public static ChunkSnapshot capture(final Chunk chunk, final int minSectionY, final int maxSectionY, final Predicate<Block> isBlockType) {
+		final ChunkSnapshot snapshot = new ChunkSnapshot(chunk.x, chunk.z);
+		final ExtendedBlockStorage[] storageArray = chunk.getBlockStorageArray();
+		for (int sectionY = Math.max(0, minSectionY); sectionY <= Math.min(15, maxSectionY); ++sectionY) {
+			final ExtendedBlockStorage storage = storageArray[sectionY];
+			if (!SectionFilter.mayContain(storage, isBlockType)) continue;
+
+			final Section section = new Section();
+			section.extendedIds = storage.getData().getDataForNBT(section.blockIds, section.metadata);
+			snapshot.sections[sectionY] = section;
+			++snapshot.copiedSections;
+		}
+		return snapshot;
+	}
+
+	public int getChunkX() {
+		return chunkX;
+	}
+
+	public int getChunkZ() {
+		return chunkZ;
+	}
+
+	public int getCopiedSections() {
+		return copiedSections;
+	}
+
+	public boolean isSectionEmpty(final int sectionY) {
+		return sectionY < 0 || sectionY > 15 || sections[sectionY] == null;
+	}
+
+	// Returns the block ID at the chunk-local position, or 0 (air) when the section was not captured
+	public int getBlockId(final int localX, final int y, final int localZ) {
+		if (isSectionEmpty(y >> 4)) return 0;
+		final Section section = sections[y >> 4];
+		final int localY = y & 15;
+		final int blockId = section.blockIds[(localY << 8) | (localZ << 4) | localX] & 255;
+		if (section.extendedIds == null) return blockId;
+		return (section.extendedIds.get(localX, localY, localZ) << 8) | blockId;
+	}
+
+	public IBlockState getBlockState(final int localX, final int y, final int localZ) {
+		if (isSectionEmpty(y >> 4)) return Blocks.AIR.getDefaultState();
+		final IBlockState state = Block.BLOCK_STATE_IDS.getByValue(
+			(getBlockId(localX, y, localZ) << 4) | sections[y >> 4].metadata.get(localX, y & 15, localZ)
+		);
+		return (state == null) ? Blocks.AIR.getDefaultState() : state;
+	}
+
+	private static class Section {
+		private final byte[] blockIds = new byte[4096];			// The low 8 bits of each block ID
+		private final NibbleArray metadata = new NibbleArray();	// The block metadata
+		private NibbleArray extendedIds;						// The high 4 bits of each block ID, or null if no block needs them
+	}
+}
@@ -0,0 +1,61 @@
+package com.sylvan.presence.util;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// Entries may be added from any thread. Each world tick iterates only its own dimension, without locking
+public class DimensionRegistry<T> {
+	private final Map<Integer, Queue<T>> dimensions = new ConcurrentHashMap<>();
+
+	public void add(final int dimension, final T entry) {
+		dimensions.computeIfAbsent(dimension, key -> new ConcurrentLinkedQueue<>()).add(entry);
+	}
+
+	// Iterator supports remove() and never throws ConcurrentModificationException
+	public Iterator<T> iterator(final int dimension) {
+		final Queue<T> entries = dimensions.get(dimension);
+		return (entries == null) ? Collections.emptyIterator() : entries.iterator();
+	}
+
+	public boolean isEmpty(final int dimension) {
+		final Queue<T> entries = dimensions.get(dimension);
+		return entries == null || entries.isEmpty();
+	}
+
+	public boolean isEmpty() {
+		for (final Queue<T> entries : dimensions.values()) {
+			if (!entries.isEmpty()) return false;
+		}
+		return true;
+	}
+
+	public int size() {
+		int size = 0;
+		for (final Queue<T> entries : dimensions.values()) {
+			size += entries.size();
+		}
+		return size;
+	}
+
+	public void forEach(final Consumer<T> action) {
+		for (final Queue<T> entries : dimensions.values()) {
+			entries.forEach(action);
+		}
+	}
+
+	public void removeIf(final Predicate<T> filter) {
+		for (final Queue<T> entries : dimensions.values()) {
+			entries.removeIf(filter);
+		}
+	}
+
+	public void clear() {
+		dimensions.clear();
+	}
+}
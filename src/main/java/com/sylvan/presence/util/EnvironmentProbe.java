@@ -0,0 +1,85 @@
+package com.sylvan.presence.util;
+
+import net.minecraft.entity.EntityLivingBase;
+
+// Facts about one player's surroundings, each worked out at most once per tick however many events ask.
+// Only the player's own light, night vision and cave state are kept: the other events check positions around the player instead
+public class EnvironmentProbe {
+	private static final int LIGHT_LEVEL = 1;
+	private static final int NIGHT_VISION = 1 << 1;
+	private static final int IN_CAVE = 1 << 2;
+
+	private static long queries = 0;
+	private static long computed = 0;
+
+	private final CaveDetectionCache caveCache;
+	private long tick = Long.MIN_VALUE;
+	private int dimension;
+	private int known = 0;	// Which facts have been worked out this tick
+	private int lightLevel;
+	private boolean nightVision;
+	private boolean inCave;
+
+	public EnvironmentProbe(final CaveDetectionCache caveCache) {
+		this.caveCache = caveCache;
+	}
+
+	// Forgets every fact once the tick or dimension changes
+	private void refresh(final EntityLivingBase entity) {
+		++queries;
+		final long worldTick = entity.getEntityWorld().getTotalWorldTime();
+		if (worldTick != tick || entity.dimension != dimension) {
+			tick = worldTick;
+			dimension = entity.dimension;
+			known = 0;
+		}
+	}
+
+	public int getLightLevel(final EntityLivingBase entity) {
+		refresh(entity);
+		if ((known & LIGHT_LEVEL) == 0) {
+			++computed;
+			lightLevel = entity.getEntityWorld().getLight(entity.getPosition());
+			known |= LIGHT_LEVEL;
+		}
+		return lightLevel;
+	}
+
+	public boolean hasNightVision(final EntityLivingBase entity) {
+		refresh(entity);
+		if ((known & NIGHT_VISION) == 0) {
+			++computed;
+			nightVision = Algorithms.hasNightVision(entity);
+			known |= NIGHT_VISION;
+		}
+		return nightVision;
+	}
+
+	public boolean isInDarkness(final EntityLivingBase entity, final int maxLightLevel) {
+		return getLightLevel(entity) <= maxLightLevel && !hasNightVision(entity);
+	}
+
+	public boolean isInCave(final EntityLivingBase entity) {
+		refresh(entity);
+		if ((known & IN_CAVE) == 0) {
+			++computed;
+			inCave = caveCache.isEntityInCave(entity);
+			known |= IN_CAVE;
+		}
+		return inCave;
+	}
+
+	// Whether isInCave can answer without casting rays
+	public boolean hasCaveVerdict(final EntityLivingBase entity) {
+		return caveCache.hasVerdict(entity);
+	}
+
+	public static String getStats() {
+		return String.format(
+			"Environment probe: %d queries, %d worked out (%.1f%% reused within a tick)",
+			queries,
+			computed,
+			100.0 * (queries - computed) / Math.max(1, queries)
+		);
+	}
+}
@@ -0,0 +1,60 @@
+package com.sylvan.presence.util;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+// Queue that hands out one element from each owner in turn so one owner's backlog cannot starve the others
+public class FairQueue<T> {
+	private final Map<Object, ArrayDeque<T>> lanes = new HashMap<>();
+	private final ArrayDeque<Object> laneOrder = new ArrayDeque<>();
+	private int size = 0;
+
+	public void add(final Object owner, final T element) {
+		ArrayDeque<T> lane = lanes.get(owner);
+		if (lane == null) {
+			lane = new ArrayDeque<>();
+			lanes.put(owner, lane);
+			laneOrder.add(owner);
+		}
+		lane.add(element);
+		++size;
+	}
+
+	public T poll() {
+		final Object owner = laneOrder.poll();
+		if (owner == null) return null;
+		final ArrayDeque<T> lane = lanes.get(owner);
+		final T element = lane.poll();
+		if (lane.isEmpty()) lanes.remove(owner);
+		else laneOrder.add(owner);
+		--size;
+		return element;
+	}
+
+	public int remove(final Object owner) {
+		final ArrayDeque<T> lane = lanes.remove(owner);
+		if (lane == null) return 0;
+		laneOrder.remove(owner);
+		size -= lane.size();
+		return lane.size();
+	}
+
+	public void clear() {
+		lanes.clear();
+		laneOrder.clear();
+		size = 0;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getOwnerCount() {
+		return lanes.size();
+	}
+}
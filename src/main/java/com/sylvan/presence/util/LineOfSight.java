@@ -0,0 +1,139 @@
+package com.sylvan.presence.util;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+// Occlusion raycasts from viewer eyes, shared by every caller and remembered until the end of the tick. Only used on the server thread
+public class LineOfSight {
+	private static final int QUANTIZE = 16;	// Positions closer than 1/QUANTIZE of a block share results
+
+	private static final Map<Key, Boolean> memo = new HashMap<>();
+	private static final Key lookupKey = new Key();	// Reused for lookups, only copied when a result is stored
+	private static long queries = 0;
+	private static long hits = 0;
+	private static long lastTickQueries = 0;
+	private static long lastTickHits = 0;
+	private static long totalQueries = 0;
+	private static long totalHits = 0;
+
+	public static void onServerTick() {
+		// Blocks may change between ticks, so results only live for one
+		lastTickQueries = queries;
+		lastTickHits = hits;
+		totalQueries += queries;
+		totalHits += hits;
+		queries = 0;
+		hits = 0;
+		memo.clear();
+	}
+
+	public static boolean canSee(final Entity viewer, final Vec3d target) {
+		return canSee(viewer, target.x, target.y, target.z);
+	}
+
+	// Memo hits allocate nothing; the vectors for the raycast are only built on a miss
+	public static boolean canSee(final Entity viewer, final double x, final double y, final double z) {
+		return canSee(viewer, viewer.posX, viewer.posY + viewer.getEyeHeight(), viewer.posZ, x, y, z);
+	}
+
+	// Targets are packed as x, y, z triples. Bit i of seen is set when target i is visible, and cleared otherwise
+	public static void canSee(final Entity viewer, final double[] targets, final BitSet seen) {
+		final double eyeX = viewer.posX, eyeY = viewer.posY + viewer.getEyeHeight(), eyeZ = viewer.posZ;
+		for (int i = 0; i + 2 < targets.length; i += 3) {
+			seen.set(i / 3, canSee(viewer, eyeX, eyeY, eyeZ, targets[i], targets[i + 1], targets[i + 2]));
+		}
+	}
+
+	private static boolean canSee(
+		final Entity viewer,
+		final double eyeX, final double eyeY, final double eyeZ,
+		final double x, final double y, final double z
+	) {
+		++queries;
+		lookupKey.set(viewer.dimension, eyeX, eyeY, eyeZ, x, y, z);
+		final Boolean memoized = memo.get(lookupKey);
+		if (memoized != null) {
+			++hits;
+			return memoized;
+		}
+
+		final boolean seen = !VoxelRaycast.get().cast(viewer.getEntityWorld(), new Vec3d(eyeX, eyeY, eyeZ), new Vec3d(x, y, z), VoxelRaycast.OPAQUE);
+		memo.put(lookupKey.copy(), seen);
+		return seen;
+	}
+
+	public static String getStats() {
+		return String.format(
+			"Line of sight: %d queries last tick (%.1f%% memoized), %d in total (%.1f%% memoized), %d memoized this tick",
+			lastTickQueries,
+			100.0 * lastTickHits / Math.max(1, lastTickQueries),
+			totalQueries + queries,
+			100.0 * (totalHits + hits) / Math.max(1, totalQueries + queries),
+			memo.size()
+		);
+	}
+
+	static class Key {
+		private int dimension;
+		private int eyeX, eyeY, eyeZ;
+		private int targetX, targetY, targetZ;
+
+		Key set(
+			final int dimension,
+			final double eyeX, final double eyeY, final double eyeZ,
+			final double targetX, final double targetY, final double targetZ
+		) {
+			this.dimension = dimension;
+			this.eyeX = quantize(eyeX);
+			this.eyeY = quantize(eyeY);
+			this.eyeZ = quantize(eyeZ);
+			this.targetX = quantize(targetX);
+			this.targetY = quantize(targetY);
+			this.targetZ = quantize(targetZ);
+			return this;
+		}
+
+		Key copy() {
+			final Key key = new Key();
+			key.dimension = dimension;
+			key.eyeX = eyeX;
+			key.eyeY = eyeY;
+			key.eyeZ = eyeZ;
+			key.targetX = targetX;
+			key.targetY = targetY;
+			key.targetZ = targetZ;
+			return key;
+		}
+
+		private static int quantize(final double coordinate) {
+			return (int) Math.floor(coordinate * QUANTIZE);
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+			if (!(other instanceof Key)) return false;
+			final Key key = (Key) other;
+			return (
+				dimension == key.dimension &&
+				eyeX == key.eyeX && eyeY == key.eyeY && eyeZ == key.eyeZ &&
+				targetX == key.targetX && targetY == key.targetY && targetZ == key.targetZ
+			);
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = dimension;
+			hash = 31 * hash + eyeX;
+			hash = 31 * hash + eyeY;
+			hash = 31 * hash + eyeZ;
+			hash = 31 * hash + targetX;
+			hash = 31 * hash + targetY;
+			hash = 31 * hash + targetZ;
+			return hash;
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.sylvan.presence.util;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+// Scratch vector for per-tick math, changed in place instead of allocating a Vec3d for every step. Not thread-safe
+public class MutableVec3d {
+	public double x;
+	public double y;
+	public double z;
+
+	public MutableVec3d set(final double x, final double y, final double z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		return this;
+	}
+
+	public MutableVec3d add(final double x, final double y, final double z) {
+		this.x += x;
+		this.y += y;
+		this.z += z;
+		return this;
+	}
+
+	public MutableVec3d subtract(final double x, final double y, final double z) {
+		this.x -= x;
+		this.y -= y;
+		this.z -= z;
+		return this;
+	}
+
+	public MutableVec3d addScaled(final MutableVec3d direction, final double distance) {
+		x += direction.x * distance;
+		y += direction.y * distance;
+		z += direction.z * distance;
+		return this;
+	}
+
+	public MutableVec3d scale(final double factor) {
+		x *= factor;
+		y *= factor;
+		z *= factor;
+		return this;
+	}
+
+	// Like Vec3d.normalize, very short vectors become zero
+	public MutableVec3d normalize() {
+		final double length = length();
+		if (length < 1.0E-4) return set(0.0, 0.0, 0.0);
+		return scale(1.0 / length);
+	}
+
+	public double length() {
+		return Math.sqrt(x * x + y * y + z * z);
+	}
+
+	public float getPitch() {
+		return Algorithms.directionToPitch(x, y, z);
+	}
+
+	public float getYaw() {
+		return Algorithms.directionToYaw(x, z);
+	}
+
+	// Rounds like Algorithms.getBlockPosFromVec3d
+	public BlockPos toBlockPos() {
+		return new BlockPos((int) Math.round(x), (int) Math.round(y), (int) Math.round(z));
+	}
+
+	public Vec3d toVec3d() {
+		return new Vec3d(x, y, z);
+	}
+}
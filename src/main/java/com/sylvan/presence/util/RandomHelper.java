@@ -1,13 +1,50 @@
 package com.sylvan.presence.util;
 
-import java.util.Random;
+import java.util.SplittableRandom;
+
+// Not thread-safe. Each player owns a stream, so nothing contends on a shared seed
+public class RandomHelper {
+    private final SplittableRandom random;
+
+    public RandomHelper() {
+        this(new SplittableRandom());
+    }
+
+    public RandomHelper(final long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private RandomHelper(final SplittableRandom random) {
+        this.random = random;
+    }
+
+    public RandomHelper split() {
+        return new RandomHelper(random.split());
+    }
+
+    public boolean nextBoolean() {
+        return random.nextBoolean();
+    }
+
+    public int nextInt(final int bound) {
+        return random.nextInt(bound);
+    }
+
+    public float nextFloat() {
+        return (random.nextInt() >>> 8) * 0x1.0p-24f;
+    }
+
+    public double nextDouble() {
+        return random.nextDouble();
+    }
 
-public class RandomHelper extends Random {
     public float nextBetween(final float min, final float max) {
         return min + this.nextFloat() * (max - min);
     }
 
+    // Both bounds are inclusive
     public int nextBetween(final int min, final int max) {
-        return min + this.nextInt() * (max - min);
+        if (max <= min) return min;
+        return (int) random.nextLong(min, (long) max + 1);
     }
 }
@@ -0,0 +1,119 @@
+package com.sylvan.presence.util;
+
+import com.sylvan.presence.Presence;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.BlockStateContainer;
+import net.minecraft.world.chunk.BlockStatePaletteRegistry;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IBlockStatePalette;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraftforge.fml.relauncher.ReflectionHelper;
+
+import java.lang.reflect.Field;
+import java.util.function.Predicate;
+
+// The 16x16x16 sections around a position that could hold a wanted block, judged from each section's palette
+public class SectionFilter {
+	private static final Field paletteField = findPaletteField();
+	private static long checkedSections = 0;
+	private static long skippedSections = 0;
+
+	private final int minSectionX, minSectionY, minSectionZ;
+	private final int sizeX, sizeY, sizeZ;
+	private final ExtendedBlockStorage[] sections;	// Null where the section is empty, unloaded or cannot match
+	private int candidateSections = 0;
+
+	private SectionFilter(final BlockPos center, final int range) {
+		minSectionX = (center.getX() - range) >> 4;
+		minSectionY = Math.max(0, (center.getY() - range) >> 4);
+		minSectionZ = (center.getZ() - range) >> 4;
+		sizeX = ((center.getX() + range) >> 4) - minSectionX + 1;
+		sizeY = Math.max(0, Math.min(15, (center.getY() + range) >> 4) - minSectionY + 1);
+		sizeZ = ((center.getZ() + range) >> 4) - minSectionZ + 1;
+		sections = new ExtendedBlockStorage[sizeX * sizeY * sizeZ];
+	}
+
+	// Must be called on the server thread. Unloaded chunks are never loaded or touched
+	public static SectionFilter create(final World world, final BlockPos center, final int range, final Predicate<Block> isBlockType) {
+		final SectionFilter filter = new SectionFilter(center, range);
+		for (int x = 0; x < filter.sizeX; ++x) {
+			for (int z = 0; z < filter.sizeZ; ++z) {
+				final Chunk chunk = world.getChunkProvider().getLoadedChunk(filter.minSectionX + x, filter.minSectionZ + z);
+				if (chunk == null) continue;
+				final ExtendedBlockStorage[] storageArray = chunk.getBlockStorageArray();
+				for (int y = 0; y < filter.sizeY; ++y) {
+					final ExtendedBlockStorage storage = storageArray[filter.minSectionY + y];
+					if (!mayContain(storage, isBlockType)) continue;
+					filter.sections[(x * filter.sizeZ + z) * filter.sizeY + y] = storage;
+					++filter.candidateSections;
+				}
+			}
+		}
+		return filter;
+	}
+
+	// False only when the section certainly holds no matching block
+	public static boolean mayContain(final ExtendedBlockStorage storage, final Predicate<Block> isBlockType) {
+		++checkedSections;
+		if (storage == Chunk.NULL_BLOCK_STORAGE || storage.isEmpty()) {
+			++skippedSections;
+			return false;
+		}
+		final IBlockStatePalette palette = getPalette(storage.getData());
+		// The global palette lists every block state, so it says nothing about this section
+		if (palette == null || palette instanceof BlockStatePaletteRegistry) return true;
+
+		IBlockState state;
+		for (int i = 0; i < 4096 && (state = palette.getBlockState(i)) != null; ++i) {
+			if (isBlockType.test(state.getBlock())) return true;
+		}
+		++skippedSections;
+		return false;
+	}
+
+	private static IBlockStatePalette getPalette(final BlockStateContainer container) {
+		if (paletteField == null) return null;
+		try {
+			return (IBlockStatePalette) paletteField.get(container);
+		} catch (IllegalAccessException e) {
+			return null;
+		}
+	}
+
+	private static Field findPaletteField() {
+		try {
+			return ReflectionHelper.findField(BlockStateContainer.class, "palette", "field_186022_c");
+		} catch (ReflectionHelper.UnableToFindFieldException e) {
+			Presence.LOGGER.error("Failed to find the block state palette field. Block searches will not skip sections.", e);
+			return null;
+		}
+	}
+
+	public boolean isEmpty() {
+		return candidateSections == 0;
+	}
+
+	// Returns null when the position lies in a section that cannot match
+	public IBlockState getBlockState(final int x, final int y, final int z) {
+		final int sectionX = (x >> 4) - minSectionX, sectionY = (y >> 4) - minSectionY, sectionZ = (z >> 4) - minSectionZ;
+		if (
+			sectionX < 0 || sectionX >= sizeX ||
+			sectionY < 0 || sectionY >= sizeY ||
+			sectionZ < 0 || sectionZ >= sizeZ
+		) return null;
+		final ExtendedBlockStorage storage = sections[(sectionX * sizeZ + sectionZ) * sizeY + sectionY];
+		return (storage == null) ? null : storage.get(x & 15, y & 15, z & 15);
+	}
+
+	public static String getStats() {
+		return String.format(
+			"Section filter: %d of %d sections skipped (%.1f%%)",
+			skippedSections,
+			checkedSections,
+			100.0 * skippedSections / Math.max(1, checkedSections)
+		);
+	}
+}
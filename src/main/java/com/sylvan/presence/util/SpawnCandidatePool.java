@@ -0,0 +1,184 @@
+package com.sylvan.presence.util;
+
+import com.sylvan.presence.Presence;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+// Standable positions around one player, found a few at a time between events so placement only has to re-validate one
+public class SpawnCandidatePool {
+	// Config
+	private static boolean spawnPoolEnabled = true;	// Whether spawn and sound positions are drawn from positions found ahead of time
+	private static int spawnPoolSize = 8;		// The positions kept ready per distance band for each player
+	private static int spawnPoolFillMicros = 250;	// The microseconds per server tick spent finding positions across all players
+	private static int spawnPoolMoveDistance = 8;	// The distance a player must move for their pooled positions to be thrown away
+
+	private static long draws = 0;
+	private static long hits = 0;
+	private static long staleCandidates = 0;
+	private static long attempts = 0;
+	private static long found = 0;
+
+	private final RandomHelper random;
+	private final Map<Band, ArrayDeque<BlockPos>> bands = new HashMap<>();
+	private int dimension;
+	private BlockPos anchorPos;
+
+	public SpawnCandidatePool(final RandomHelper random) {
+		this.random = random;
+	}
+
+	public static void loadConfig() {
+		try {
+			spawnPoolEnabled = Presence.config.getOrSetValue("spawnPoolEnabled", spawnPoolEnabled).getAsBoolean();
+			spawnPoolSize = Presence.config.getOrSetValue("spawnPoolSize", spawnPoolSize).getAsInt();
+			spawnPoolFillMicros = Presence.config.getOrSetValue("spawnPoolFillMicros", spawnPoolFillMicros).getAsInt();
+			spawnPoolMoveDistance = Presence.config.getOrSetValue("spawnPoolMoveDistance", spawnPoolMoveDistance).getAsInt();
+		} catch (UnsupportedOperationException e) {
+			Presence.LOGGER.error("Configuration issue for SpawnCandidatePool.java. Wiping and using default values.", e);
+			Presence.config.wipe();
+			Presence.initConfig();
+		}
+	}
+
+	public static long getFillDeadline() {
+		return System.nanoTime() + spawnPoolFillMicros * 1_000L;
+	}
+
+	// Returns null when no pooled position is still valid, so callers can fall back to searching directly. The band is pooled from then on
+	public BlockPos draw(final Entity entity, final Band band) {
+		if (!spawnPoolEnabled) return null;
+		++draws;
+		if (!isAnchoredTo(entity)) reanchor(entity);
+		final ArrayDeque<BlockPos> candidates = bands.computeIfAbsent(band, key -> new ArrayDeque<>(spawnPoolSize));
+
+		// Blocks may have changed since the position was found
+		BlockPos candidate;
+		while ((candidate = candidates.pollFirst()) != null) {
+			if (isValid(entity, band, candidate)) {
+				++hits;
+				return candidate;
+			}
+			++staleCandidates;
+		}
+		return null;
+	}
+
+	// Returns false once the deadline has passed, so the caller can stop filling other pools
+	public boolean fill(final Entity entity, final long deadlineNanos) {
+		if (!spawnPoolEnabled || bands.isEmpty()) return true;
+		if (!isAnchoredTo(entity)) reanchor(entity);
+
+		for (final Map.Entry<Band, ArrayDeque<BlockPos>> entry : bands.entrySet()) {
+			final Band band = entry.getKey();
+			final ArrayDeque<BlockPos> candidates = entry.getValue();
+			// Bounded per tick so a band with no standable positions cannot starve the others
+			for (int i = 0; i < spawnPoolSize && candidates.size() < spawnPoolSize; ++i) {
+				if (System.nanoTime() >= deadlineNanos) return false;
+				++attempts;
+				final BlockPos candidate = findCandidate(entity, band);
+				if (isValid(entity, band, candidate)) {
+					++found;
+					candidates.addLast(candidate);
+				}
+			}
+		}
+		return true;
+	}
+
+	private BlockPos findCandidate(final Entity entity, final Band band) {
+		final BlockPos entityPos = entity.getPosition();
+		final BlockPos startPos = Algorithms.getBlockPosFromVec3d(
+			Algorithms.getRandomPosNearEntity(random, entity, band.distanceMin, band.distanceMax, band.randomY)
+		);
+		return Algorithms.getNearestStandableBlockPosTowardsEntity(
+			entity,
+			startPos,
+			entityPos.getY() - band.verticalDistance,
+			entityPos.getY() + band.verticalDistance
+		);
+	}
+
+	private static boolean isValid(final Entity entity, final Band band, final BlockPos candidate) {
+		final Vec3d entityPos = entity.getPositionVector();
+		if (Math.abs(candidate.getY() - (int) entityPos.y) > band.verticalDistance) return false;
+
+		final double dx = candidate.getX() + 0.5 - entityPos.x;
+		final double dy = band.randomY ? candidate.getY() + 0.5 - entityPos.y : 0.0;
+		final double dz = candidate.getZ() + 0.5 - entityPos.z;
+		final double distanceSq = dx * dx + dy * dy + dz * dz;
+		if (
+			distanceSq < (double) band.distanceMin * band.distanceMin ||
+			distanceSq > (double) band.distanceMax * band.distanceMax
+		) return false;
+
+		return Algorithms.couldPlayerStandOnBlock(entity.getEntityWorld(), candidate);
+	}
+
+	private boolean isAnchoredTo(final Entity entity) {
+		return (
+			anchorPos != null &&
+			dimension == entity.dimension &&
+			anchorPos.distanceSq(entity.getPosition()) <= (double) spawnPoolMoveDistance * spawnPoolMoveDistance
+		);
+	}
+
+	private void reanchor(final Entity entity) {
+		for (final ArrayDeque<BlockPos> candidates : bands.values()) {
+			candidates.clear();
+		}
+		dimension = entity.dimension;
+		anchorPos = entity.getPosition();
+	}
+
+	public static String getStats() {
+		return String.format(
+			"Spawn candidate pool: %d draws (%.1f%% served), %d stale candidates, %d found in %d attempts",
+			draws,
+			100.0 * hits / Math.max(1, draws),
+			staleCandidates,
+			found,
+			attempts
+		);
+	}
+
+	// Positions between distanceMin and distanceMax from the player, at most verticalDistance above or below. Distance ignores height unless randomY
+	public static final class Band {
+		private final int distanceMin;
+		private final int distanceMax;
+		private final int verticalDistance;
+		private final boolean randomY;
+
+		public Band(final int distanceMin, final int distanceMax, final int verticalDistance, final boolean randomY) {
+			this.distanceMin = distanceMin;
+			this.distanceMax = distanceMax;
+			this.verticalDistance = verticalDistance;
+			this.randomY = randomY;
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+			if (!(other instanceof Band)) return false;
+			final Band band = (Band) other;
+			return (
+				distanceMin == band.distanceMin &&
+				distanceMax == band.distanceMax &&
+				verticalDistance == band.verticalDistance &&
+				randomY == band.randomY
+			);
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = distanceMin;
+			hash = 31 * hash + distanceMax;
+			hash = 31 * hash + verticalDistance;
+			hash = 31 * hash + (randomY ? 1 : 0);
+			return hash;
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.sylvan.presence.util;
+
+import com.sylvan.presence.Presence;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// The Y levels a player could stand on in each block column, computed once from chunk data. Only used on the server thread
+public class StandableColumns {
+	// Config
+	private static int standableColumnsMax = 4096;	// The maximum block columns remembered per dimension before the least recently used are dropped
+	private static int standableColumnsTtl = 60;		// The time in seconds a column is trusted before it is read from the chunk again
+
+	private static final Map<Integer, ColumnMap> dimensions = new HashMap<>();
+	private static long hits = 0;
+	private static long misses = 0;
+	private static long invalidations = 0;
+	private static long expirations = 0;
+
+	public static void loadConfig() {
+		try {
+			standableColumnsMax = Presence.config.getOrSetValue("standableColumnsMax", standableColumnsMax).getAsInt();
+			standableColumnsTtl = Presence.config.getOrSetValue("standableColumnsTtl", standableColumnsTtl).getAsInt();
+		} catch (UnsupportedOperationException e) {
+			Presence.LOGGER.error("Configuration issue for StandableColumns.java. Wiping and using default values.", e);
+			Presence.config.wipe();
+			Presence.initConfig();
+		}
+	}
+
+	// Returns null when the chunk is not loaded, so callers can fall back to checking blocks directly
+	public static BitSet getColumn(final World world, final int x, final int z) {
+		final ColumnMap columns = dimensions.computeIfAbsent(world.provider.getDimension(), key -> new ColumnMap(standableColumnsMax));
+		final long key = ChunkPos.asLong(x, z);
+		final long worldTick = world.getTotalWorldTime();
+		final Column column = columns.get(key);
+		if (column != null) {
+			if (!column.isExpired(worldTick)) {
+				++hits;
+				return column.levels;
+			}
+			++expirations;
+		}
+
+		final Chunk chunk = world.getChunkProvider().getLoadedChunk(x >> 4, z >> 4);
+		if (chunk == null) return null;
+		++misses;
+		final BitSet levels = computeColumn(chunk, x & 15, z & 15);
+		columns.put(key, new Column(levels, worldTick + standableColumnsTtl * 20L));
+		return levels;
+	}
+
+	// Checks the live blocks the same way computeColumn does. Columns only hear about changes that notify neighbours,
+	// so world generation, structures and pistons can leave one stale until it expires
+	public static boolean isStandable(final World world, final BlockPos pos) {
+		if (!world.getBlockState(pos).isOpaqueCube()) return false;
+		final BlockPos.MutableBlockPos abovePos = new BlockPos.MutableBlockPos(pos.getX(), pos.getY() + 1, pos.getZ());
+		if (!isPassable(world.getBlockState(abovePos))) return false;
+		abovePos.setY(pos.getY() + 2);
+		return isPassable(world.getBlockState(abovePos));
+	}
+
+	private static boolean isPassable(final IBlockState state) {
+		return !state.isOpaqueCube() && !state.getMaterial().blocksMovement();
+	}
+
+	// Mirrors Algorithms.couldPlayerStandOnBlock: an opaque block with two passable blocks above it
+	private static BitSet computeColumn(final Chunk chunk, final int localX, final int localZ) {
+		final BitSet column = new BitSet(256);
+		final ExtendedBlockStorage[] storageArray = chunk.getBlockStorageArray();
+		boolean abovePassable = true, twoAbovePassable = true, passable;
+		IBlockState state;
+		for (int y = 255; y >= 0; --y) {
+			final ExtendedBlockStorage storage = storageArray[y >> 4];
+			state = (storage == Chunk.NULL_BLOCK_STORAGE) ? Blocks.AIR.getDefaultState() : storage.get(localX, y & 15, localZ);
+			if (state.isOpaqueCube() && abovePassable && twoAbovePassable) column.set(y);
+			passable = isPassable(state);
+			twoAbovePassable = abovePassable;
+			abovePassable = passable;
+		}
+		return column;
+	}
+
+	public static void onBlockChange(final int dimension, final BlockPos pos) {
+		final ColumnMap columns = dimensions.get(dimension);
+		if (columns != null && columns.remove(ChunkPos.asLong(pos.getX(), pos.getZ())) != null) ++invalidations;
+	}
+
+	// A chunk may be regenerated or changed by other tools before it loads again
+	public static void onChunkUnload(final int dimension, final int chunkX, final int chunkZ) {
+		final ColumnMap columns = dimensions.get(dimension);
+		if (columns != null) invalidations += removeChunk(columns, chunkX, chunkZ);
+	}
+
+	static int removeChunk(final ColumnMap columns, final int chunkX, final int chunkZ) {
+		if (columns.isEmpty()) return 0;
+		int removed = 0;
+		final int minX = chunkX << 4;
+		final int minZ = chunkZ << 4;
+		for (int x = minX; x < minX + 16; ++x) {
+			for (int z = minZ; z < minZ + 16; ++z) {
+				if (columns.remove(ChunkPos.asLong(x, z)) != null) ++removed;
+			}
+		}
+		return removed;
+	}
+
+	public static void onWorldUnload(final int dimension) {
+		dimensions.remove(dimension);
+	}
+
+	public static void clear() {
+		dimensions.clear();
+	}
+
+	public static String getStats() {
+		int columnCount = 0;
+		for (final ColumnMap columns : dimensions.values()) {
+			columnCount += columns.size();
+		}
+		return String.format(
+			"Standable columns: %d cached, %d hits, %d misses (%.1f%% hit rate), %d invalidated by block or chunk changes, %d expired",
+			columnCount,
+			hits,
+			misses,
+			100.0 * hits / Math.max(1, hits + misses),
+			invalidations,
+			expirations
+		);
+	}
+
+	static class Column {
+		final BitSet levels;
+		final long expiryTick;
+
+		Column(final BitSet levels, final long expiryTick) {
+			this.levels = levels;
+			this.expiryTick = expiryTick;
+		}
+
+		boolean isExpired(final long worldTick) {
+			return worldTick >= expiryTick;
+		}
+	}
+
+	// Drops the least recently used column once more than maxSize are held
+	static class ColumnMap extends LinkedHashMap<Long, Column> {
+		private final int maxSize;
+
+		ColumnMap(final int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<Long, Column> eldest) {
+			return size() > maxSize;
+		}
+	}
+}
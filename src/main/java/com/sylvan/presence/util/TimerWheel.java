@@ -0,0 +1,146 @@
+package com.sylvan.presence.util;
+
+import java.util.function.Consumer;
+
+public class TimerWheel {
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;		// 64 slots per level
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 4;				// 64^4 ticks, or a little over 9 days, before delays are clamped
+	private static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+	private final Timer[][] slots = new Timer[LEVELS][SLOTS];
+	private final Consumer<Timer> onExpire;
+	private long currentTick = 0;
+	private int armedTimers = 0;
+
+	public TimerWheel(final Consumer<Timer> onExpire) {
+		this.onExpire = onExpire;
+	}
+
+	public Timer newTimer(final Runnable task) {
+		return new Timer(this, null, task);
+	}
+
+	public Timer newTimer(final Object owner, final Runnable task) {
+		return new Timer(this, owner, task);
+	}
+
+	public void tick() {
+		++currentTick;
+
+		// Cascade higher levels down whenever a lower level wraps around
+		Timer timer;
+		for (int level = 1; level < LEVELS; ++level) {
+			if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) break;
+			final int slot = (int) ((currentTick >> (SLOT_BITS * level)) & SLOT_MASK);
+			while ((timer = slots[level][slot]) != null) {
+				unlink(timer);
+				place(timer);
+			}
+		}
+
+		// Fire everything that lands on this tick. Popping one at a time keeps the slot valid if a task re-arms or cancels timers
+		final int slot = (int) (currentTick & SLOT_MASK);
+		while ((timer = slots[0][slot]) != null) {
+			unlink(timer);
+			timer.armed = false;
+			--armedTimers;
+			onExpire.accept(timer);
+		}
+	}
+
+	public void clear() {
+		Timer timer;
+		for (int level = 0; level < LEVELS; ++level) {
+			for (int slot = 0; slot < SLOTS; ++slot) {
+				while ((timer = slots[level][slot]) != null) {
+					unlink(timer);
+					timer.armed = false;
+				}
+			}
+		}
+		armedTimers = 0;
+	}
+
+	public long getCurrentTick() {
+		return currentTick;
+	}
+
+	public int getArmedTimers() {
+		return armedTimers;
+	}
+
+	private void place(final Timer timer) {
+		final long delta = timer.deadline - currentTick;
+		int level = 0;
+		while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) ++level;
+		final int slot = (int) ((timer.deadline >> (SLOT_BITS * level)) & SLOT_MASK);
+
+		// Push to the front of the slot list
+		final Timer head = slots[level][slot];
+		timer.level = level;
+		timer.slot = slot;
+		timer.prev = null;
+		timer.next = head;
+		if (head != null) head.prev = timer;
+		slots[level][slot] = timer;
+	}
+
+	private void unlink(final Timer timer) {
+		if (timer.prev != null) timer.prev.next = timer.next;
+		else slots[timer.level][timer.slot] = timer.next;
+		if (timer.next != null) timer.next.prev = timer.prev;
+		timer.prev = null;
+		timer.next = null;
+	}
+
+	public static class Timer {
+		private final TimerWheel wheel;
+		private final Object owner;
+		private final Runnable task;
+		private long deadline;
+		private int level;
+		private int slot;
+		private boolean armed = false;
+		private Timer prev;
+		private Timer next;
+
+		private Timer(final TimerWheel wheel, final Object owner, final Runnable task) {
+			this.wheel = wheel;
+			this.owner = owner;
+			this.task = task;
+		}
+
+		public void arm(final long delayTicks) {
+			if (armed) wheel.unlink(this);
+			else ++wheel.armedTimers;
+			armed = true;
+			deadline = wheel.currentTick + Math.min(MAX_DELAY, Math.max(1, delayTicks));
+			wheel.place(this);
+		}
+
+		public void cancel() {
+			if (!armed) return;
+			wheel.unlink(this);
+			armed = false;
+			--wheel.armedTimers;
+		}
+
+		public boolean isArmed() {
+			return armed;
+		}
+
+		public long getRemainingTicks() {
+			return armed ? deadline - wheel.currentTick : 0;
+		}
+
+		public Object getOwner() {
+			return owner;
+		}
+
+		public Runnable getTask() {
+			return task;
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package com.sylvan.presence.util;
+
+import net.minecraft.block.SoundType;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import java.util.function.Predicate;
+
+// Amanatides-Woo voxel traversal over chunk block storage. Only reports the first block that stops the ray, with no per-step allocation
+public class VoxelRaycast {
+	public static final Predicate<IBlockState> OPAQUE = IBlockState::isOpaqueCube;				// Rays stop at blocks that cannot be seen through
+	public static final Predicate<IBlockState> SOLID = state -> state.getMaterial().blocksMovement();	// Rays stop at blocks that cannot be walked through
+
+	private static final ThreadLocal<VoxelRaycast> SCRATCH = ThreadLocal.withInitial(VoxelRaycast::new);
+
+	private static long casts = 0;
+	private static long steps = 0;
+
+	private World world;
+	private Chunk chunk;
+	private boolean hit;
+	private int hitX, hitY, hitZ;
+	private IBlockState hitState;
+
+	// One traversal per thread, reused by every cast on it. Read its results before anything else on the thread casts again
+	public static VoxelRaycast get() {
+		return SCRATCH.get();
+	}
+
+	// Returns whether a block matching stopsRay lies between from and to, inclusive. Rays leaving loaded chunks or the world height stop without a hit
+	public boolean cast(final World world, final Vec3d from, final Vec3d to, final Predicate<IBlockState> stopsRay) {
+		this.world = world;
+		chunk = null;
+		hit = false;
+		hitState = null;
+		++casts;
+
+		final double dx = to.x - from.x, dy = to.y - from.y, dz = to.z - from.z;
+		int x = floor(from.x), y = floor(from.y), z = floor(from.z);
+		final int endX = floor(to.x), endY = floor(to.y), endZ = floor(to.z);
+		final int stepX = (int) Math.signum(dx), stepY = (int) Math.signum(dy), stepZ = (int) Math.signum(dz);
+
+		// Distances along the ray, as a fraction of its length, to cross one voxel and to reach the next boundary on each axis
+		final double tDeltaX = (stepX == 0) ? Double.MAX_VALUE : Math.abs(1.0 / dx);
+		final double tDeltaY = (stepY == 0) ? Double.MAX_VALUE : Math.abs(1.0 / dy);
+		final double tDeltaZ = (stepZ == 0) ? Double.MAX_VALUE : Math.abs(1.0 / dz);
+		double tMaxX = (stepX == 0) ? Double.MAX_VALUE : ((stepX > 0) ? (x + 1 - from.x) : (from.x - x)) * tDeltaX;
+		double tMaxY = (stepY == 0) ? Double.MAX_VALUE : ((stepY > 0) ? (y + 1 - from.y) : (from.y - y)) * tDeltaY;
+		double tMaxZ = (stepZ == 0) ? Double.MAX_VALUE : ((stepZ > 0) ? (z + 1 - from.z) : (from.z - z)) * tDeltaZ;
+
+		int remaining = Math.abs(endX - x) + Math.abs(endY - y) + Math.abs(endZ - z);
+		while (true) {
+			++steps;
+			if (y < 0 || y > 255) return false;
+			final IBlockState state = getBlockState(x, y, z);
+			if (state == null) return false;
+			if (stopsRay.test(state)) {
+				hit = true;
+				hitX = x;
+				hitY = y;
+				hitZ = z;
+				hitState = state;
+				return true;
+			}
+
+			if (remaining-- <= 0) return false;
+			if (tMaxX < tMaxY && tMaxX < tMaxZ) {
+				x += stepX;
+				tMaxX += tDeltaX;
+			} else if (tMaxY < tMaxZ) {
+				y += stepY;
+				tMaxY += tDeltaY;
+			} else {
+				z += stepZ;
+				tMaxZ += tDeltaZ;
+			}
+		}
+	}
+
+	// Returns null when the chunk is not loaded
+	IBlockState getBlockState(final int x, final int y, final int z) {
+		if (chunk == null || chunk.x != (x >> 4) || chunk.z != (z >> 4)) {
+			chunk = world.getChunkProvider().getLoadedChunk(x >> 4, z >> 4);
+			if (chunk == null) return null;
+		}
+		final ExtendedBlockStorage storage = chunk.getBlockStorageArray()[y >> 4];
+		if (storage == Chunk.NULL_BLOCK_STORAGE) return Blocks.AIR.getDefaultState();
+		return storage.get(x & 15, y & 15, z & 15);
+	}
+
+	private static int floor(final double value) {
+		final int floored = (int) value;
+		return (value < floored) ? floored - 1 : floored;
+	}
+
+	public boolean isHit() {
+		return hit;
+	}
+
+	public IBlockState getHitState() {
+		return hitState;
+	}
+
+	public BlockPos getHitPos() {
+		return hit ? new BlockPos(hitX, hitY, hitZ) : null;
+	}
+
+	public SoundType getHitSoundType() {
+		if (!hit) return null;
+		return hitState.getBlock().getSoundType(hitState, world, new BlockPos(hitX, hitY, hitZ), null);
+	}
+
+	public static String getStats() {
+		return String.format(
+			"Voxel raycasts: %d casts, %.1f voxels per cast",
+			casts,
+			steps / (double) Math.max(1, casts)
+		);
+	}
+}
@@ -0,0 +1,80 @@
+package com.sylvan.presence.util;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+
+// Vose's alias method: compiled once from a weight map, then each sample is one table lookup with no allocation
+public class WeightedSampler<K> {
+	private final Object[] keys;
+	private final double[] probabilities;	// The chance of keeping column i instead of taking its alias
+	private final int[] aliases;
+
+	private WeightedSampler(final Object[] keys, final double[] probabilities, final int[] aliases) {
+		this.keys = keys;
+		this.probabilities = probabilities;
+		this.aliases = aliases;
+	}
+
+	public static <K> WeightedSampler<K> empty() {
+		return new WeightedSampler<>(new Object[0], new double[0], new int[0]);
+	}
+
+	// Keys without a positive weight are never sampled
+	public static <K> WeightedSampler<K> compile(final Map<K, Float> keyWeightMap) {
+		int count = 0;
+		double totalWeight = 0.0;
+		for (final Float weight : keyWeightMap.values()) {
+			if (weight > 0.0f) {
+				++count;
+				totalWeight += weight;
+			}
+		}
+		if (count == 0) return empty();
+
+		final Object[] keys = new Object[count];
+		final double[] probabilities = new double[count];
+		final int[] aliases = new int[count];
+		final double[] scaled = new double[count];
+		int i = 0;
+		for (final Map.Entry<K, Float> entry : keyWeightMap.entrySet()) {
+			if (entry.getValue() <= 0.0f) continue;
+			keys[i] = entry.getKey();
+			scaled[i] = entry.getValue() * count / totalWeight;
+			++i;
+		}
+
+		// Pair each column under the average weight with one over it, which donates the remainder
+		final ArrayDeque<Integer> small = new ArrayDeque<>();
+		final ArrayDeque<Integer> large = new ArrayDeque<>();
+		for (i = 0; i < count; ++i) {
+			if (scaled[i] < 1.0) small.push(i);
+			else large.push(i);
+		}
+		while (!small.isEmpty() && !large.isEmpty()) {
+			final int less = small.pop();
+			final int more = large.pop();
+			probabilities[less] = scaled[less];
+			aliases[less] = more;
+			scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+			if (scaled[more] < 1.0) small.push(more);
+			else large.push(more);
+		}
+		// Whatever is left is 1.0 apart from rounding error
+		while (!large.isEmpty()) probabilities[large.pop()] = 1.0;
+		while (!small.isEmpty()) probabilities[small.pop()] = 1.0;
+
+		return new WeightedSampler<>(keys, probabilities, aliases);
+	}
+
+	// Returns null when nothing can be sampled
+	@SuppressWarnings("unchecked")
+	public K sample(final RandomHelper random) {
+		if (keys.length == 0) return null;
+		final int column = random.nextInt(keys.length);
+		return (K) keys[(random.nextDouble() < probabilities[column]) ? column : aliases[column]];
+	}
+
+	public boolean isEmpty() {
+		return keys.length == 0;
+	}
+}
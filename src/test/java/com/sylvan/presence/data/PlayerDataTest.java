@@ -0,0 +1,47 @@
+package com.sylvan.presence.data;
+
+import com.sylvan.presence.util.RandomHelper;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PlayerDataTest {
+	private static final UUID PLAYER = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+	private static final long WORLD_SEED = 1234567890L;
+
+	@Test
+	public void eventTimingRepeatsForTheSamePlayerAndWorld() {
+		final RandomHelper first = PlayerData.newEventRandom(PLAYER, WORLD_SEED);
+		final RandomHelper second = PlayerData.newEventRandom(PLAYER, WORLD_SEED);
+		for (int i = 0; i < 100; ++i) {
+			assertEquals(first.nextDouble(), second.nextDouble(), 0.0);
+		}
+	}
+
+	@Test
+	public void hauntRollsDifferBetweenSessionsOfTheSamePlayer() {
+		// Each join builds the same event stream, but the haunt roll must not come from it
+		int haunted = 0;
+		final int sessions = 200;
+		for (int i = 0; i < sessions; ++i) {
+			PlayerData.newEventRandom(PLAYER, WORLD_SEED);
+			if (PlayerData.rollHauntChance(0.5f)) ++haunted;
+		}
+		assertTrue("haunted " + haunted, haunted > 0 && haunted < sessions);
+	}
+
+	@Test
+	public void hauntChanceBoundsAreRespected() {
+		for (int i = 0; i < 100; ++i) {
+			assertTrue(PlayerData.rollHauntChance(1.0f));
+		}
+		int haunted = 0;
+		for (int i = 0; i < 100; ++i) {
+			if (PlayerData.rollHauntChance(0.0f)) ++haunted;
+		}
+		assertTrue(haunted <= 1);
+	}
+}
@@ -0,0 +1,47 @@
+package com.sylvan.presence.event;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Uses the default config: a multiplier of 2, 25% jitter and at most 600 seconds between retries
+public class RetryPolicyTest {
+	private static final double NO_JITTER = 0.5;
+
+	@Test
+	public void doublesTheDelayForEachFailedAttempt() {
+		assertEquals(10, RetryPolicy.getBackoffDelay(10, 0, NO_JITTER));
+		assertEquals(20, RetryPolicy.getBackoffDelay(10, 1, NO_JITTER));
+		assertEquals(40, RetryPolicy.getBackoffDelay(10, 2, NO_JITTER));
+		assertEquals(80, RetryPolicy.getBackoffDelay(10, 3, NO_JITTER));
+	}
+
+	@Test
+	public void capsTheDelayAtTheMaximum() {
+		assertEquals(600, RetryPolicy.getBackoffDelay(10, 6, NO_JITTER));
+		assertEquals(600, RetryPolicy.getBackoffDelay(10, 30, NO_JITTER));
+		assertEquals(600, RetryPolicy.getBackoffDelay(1000, 0, NO_JITTER));
+	}
+
+	@Test
+	public void jittersWithinTheConfiguredFraction() {
+		assertEquals(75, RetryPolicy.getBackoffDelay(100, 0, 0.0));
+		assertEquals(125, RetryPolicy.getBackoffDelay(100, 0, Math.nextDown(1.0)));
+		for (double unitRandom = 0.0; unitRandom < 1.0; unitRandom += 0.01) {
+			final int delay = RetryPolicy.getBackoffDelay(100, 0, unitRandom);
+			assertTrue("delay " + delay, delay >= 75 && delay <= 125);
+		}
+	}
+
+	@Test
+	public void jitterAppliesAfterTheCap() {
+		assertEquals(450, RetryPolicy.getBackoffDelay(10, 20, 0.0));
+	}
+
+	@Test
+	public void neverReturnsLessThanOneSecond() {
+		assertEquals(1, RetryPolicy.getBackoffDelay(0, 0, NO_JITTER));
+		assertEquals(1, RetryPolicy.getBackoffDelay(1, 0, 0.0));
+	}
+}
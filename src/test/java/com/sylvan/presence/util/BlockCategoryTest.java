@@ -0,0 +1,54 @@
+package com.sylvan.presence.util;
+
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BlockCategoryTest {
+	private static boolean matches(final String entry, final String registryName) {
+		return BlockCategory.toPattern(BlockCategory.withNamespace(entry)).matcher(registryName).matches();
+	}
+
+	@Test
+	public void defaultsToTheMinecraftNamespace() {
+		assertEquals("minecraft:chest", BlockCategory.withNamespace("chest"));
+		assertEquals("minecraft:*_door", BlockCategory.withNamespace("*_door"));
+		assertEquals("somemod:chest", BlockCategory.withNamespace("somemod:chest"));
+	}
+
+	@Test
+	public void wildcardsMatchAnything() {
+		assertTrue(matches("*:*_door", "minecraft:wooden_door"));
+		assertTrue(matches("*:*_door", "minecraft:iron_door"));
+		assertTrue(matches("*:*_door", "somemod:oak_door"));
+		assertFalse(matches("*:*_door", "minecraft:trapdoor"));
+		assertFalse(matches("*:*_door", "minecraft:iron_trapdoor"));
+		assertTrue(matches("*:*", "somemod:anything"));
+	}
+
+	@Test
+	public void wildcardsWithoutANamespaceOnlyMatchMinecraft() {
+		assertTrue(matches("*_door", "minecraft:spruce_door"));
+		assertFalse(matches("*_door", "somemod:spruce_door"));
+	}
+
+	@Test
+	public void matchesTheWholeName() {
+		assertTrue(matches("log*", "minecraft:log"));
+		assertTrue(matches("log*", "minecraft:log2"));
+		assertFalse(matches("log*", "minecraft:stripped_log"));
+	}
+
+	@Test
+	public void treatsEverythingButWildcardsLiterally() {
+		final Pattern pattern = BlockCategory.toPattern("minecraft:a.c*");
+		assertTrue(pattern.matcher("minecraft:a.c").matches());
+		assertTrue(pattern.matcher("minecraft:a.cd").matches());
+		assertFalse(pattern.matcher("minecraft:abc").matches());
+		assertTrue(BlockCategory.toPattern("minecraft:[x]*").matcher("minecraft:[x]y").matches());
+	}
+}
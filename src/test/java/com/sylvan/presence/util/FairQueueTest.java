@@ -0,0 +1,85 @@
+package com.sylvan.presence.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FairQueueTest {
+	@Test
+	public void takesOneElementFromEachOwnerInTurn() {
+		final FairQueue<String> queue = new FairQueue<>();
+		queue.add("a", "a1");
+		queue.add("a", "a2");
+		queue.add("a", "a3");
+		queue.add("b", "b1");
+		queue.add("c", "c1");
+		queue.add("c", "c2");
+
+		assertEquals("a1", queue.poll());
+		assertEquals("b1", queue.poll());
+		assertEquals("c1", queue.poll());
+		assertEquals("a2", queue.poll());
+		assertEquals("c2", queue.poll());
+		assertEquals("a3", queue.poll());
+		assertNull(queue.poll());
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void keepsEachOwnersOrder() {
+		final FairQueue<Integer> queue = new FairQueue<>();
+		for (int i = 0; i < 5; ++i) {
+			queue.add("a", i);
+		}
+		for (int i = 0; i < 5; ++i) {
+			assertEquals(i, (int) queue.poll());
+		}
+	}
+
+	@Test
+	public void ownersRejoinAtTheBackOnceDrained() {
+		final FairQueue<String> queue = new FairQueue<>();
+		queue.add("a", "a1");
+		queue.add("b", "b1");
+		assertEquals("a1", queue.poll());
+		queue.add("a", "a2");
+		assertEquals("b1", queue.poll());
+		assertEquals("a2", queue.poll());
+	}
+
+	@Test
+	public void removeDropsOneOwnersBacklog() {
+		final FairQueue<String> queue = new FairQueue<>();
+		queue.add("a", "a1");
+		queue.add("a", "a2");
+		queue.add("b", "b1");
+
+		assertEquals(2, queue.remove("a"));
+		assertEquals(0, queue.remove("a"));
+		assertEquals(1, queue.size());
+		assertEquals(1, queue.getOwnerCount());
+		assertEquals("b1", queue.poll());
+		assertNull(queue.poll());
+	}
+
+	@Test
+	public void tracksSizeAndOwners() {
+		final FairQueue<String> queue = new FairQueue<>();
+		queue.add("a", "a1");
+		queue.add("a", "a2");
+		queue.add("b", "b1");
+		assertEquals(3, queue.size());
+		assertEquals(2, queue.getOwnerCount());
+
+		queue.poll();
+		queue.poll();
+		assertEquals(1, queue.size());
+		assertEquals(1, queue.getOwnerCount());
+
+		queue.clear();
+		assertTrue(queue.isEmpty());
+		assertEquals(0, queue.getOwnerCount());
+	}
+}
@@ -0,0 +1,45 @@
+package com.sylvan.presence.util;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LineOfSightTest {
+	@Test
+	public void positionsWithinOneQuantumShareAKey() {
+		final LineOfSight.Key key = new LineOfSight.Key().set(0, 10.0, 64.62, -3.0, 20.5, 65.0, -8.01);
+		final LineOfSight.Key nearby = new LineOfSight.Key().set(0, 10.05, 64.624, -2.95, 20.51, 65.02, -8.02);
+		assertEquals(key, nearby);
+		assertEquals(key.hashCode(), nearby.hashCode());
+	}
+
+	@Test
+	public void differentDimensionsOrQuantaDoNotShareAKey() {
+		final LineOfSight.Key key = new LineOfSight.Key().set(0, 10.0, 64.0, -3.0, 20.0, 65.0, -8.0);
+		assertNotEquals(key, new LineOfSight.Key().set(1, 10.0, 64.0, -3.0, 20.0, 65.0, -8.0));
+		assertNotEquals(key, new LineOfSight.Key().set(0, 10.0, 64.0, -3.0, 20.07, 65.0, -8.0));
+		// Either side of zero must not collapse into the same quantum
+		assertNotEquals(
+			new LineOfSight.Key().set(0, 0.01, 0, 0, 0, 0, 0),
+			new LineOfSight.Key().set(0, -0.01, 0, 0, 0, 0, 0)
+		);
+	}
+
+	@Test
+	public void storedCopiesSurviveReuseOfTheLookupKey() {
+		final Map<LineOfSight.Key, Boolean> memo = new HashMap<>();
+		final LineOfSight.Key lookupKey = new LineOfSight.Key();
+		memo.put(lookupKey.set(0, 1, 2, 3, 4, 5, 6).copy(), true);
+		memo.put(lookupKey.set(0, 7, 8, 9, 10, 11, 12).copy(), false);
+
+		assertEquals(2, memo.size());
+		assertTrue(memo.get(lookupKey.set(0, 1, 2, 3, 4, 5, 6)));
+		assertFalse(memo.get(lookupKey.set(0, 7, 8, 9, 10, 11, 12)));
+	}
+}
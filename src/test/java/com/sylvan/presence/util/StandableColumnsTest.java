@@ -0,0 +1,106 @@
+package com.sylvan.presence.util;
+
+import net.minecraft.util.math.ChunkPos;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StandableColumnsTest {
+	private static StandableColumns.Column column() {
+		return new StandableColumns.Column(new BitSet(), Long.MAX_VALUE);
+	}
+
+	@Test
+	public void dropsTheLeastRecentlyUsedColumn() {
+		final StandableColumns.ColumnMap columns = new StandableColumns.ColumnMap(2);
+		columns.put(1L, column());
+		columns.put(2L, column());
+
+		// Reading column 1 makes column 2 the least recently used
+		assertNotNull(columns.get(1L));
+		columns.put(3L, column());
+
+		assertEquals(2, columns.size());
+		assertTrue(columns.containsKey(1L));
+		assertFalse(columns.containsKey(2L));
+		assertTrue(columns.containsKey(3L));
+	}
+
+	@Test
+	public void dropsInInsertionOrderWithoutReads() {
+		final StandableColumns.ColumnMap columns = new StandableColumns.ColumnMap(3);
+		for (long key = 0; key < 10; ++key) {
+			columns.put(key, column());
+			assertTrue(columns.size() <= 3);
+		}
+		assertFalse(columns.containsKey(6L));
+		assertTrue(columns.containsKey(7L));
+		assertTrue(columns.containsKey(8L));
+		assertTrue(columns.containsKey(9L));
+	}
+
+	@Test
+	public void replacingAColumnDoesNotEvict() {
+		final StandableColumns.ColumnMap columns = new StandableColumns.ColumnMap(2);
+		columns.put(1L, column());
+		columns.put(2L, column());
+		final BitSet replacement = new BitSet();
+		replacement.set(64);
+		columns.put(1L, new StandableColumns.Column(replacement, 0));
+
+		assertEquals(2, columns.size());
+		assertTrue(columns.get(1L).levels.get(64));
+		assertNotNull(columns.get(2L));
+	}
+
+	@Test
+	public void removedColumnsFreeTheirSlot() {
+		final StandableColumns.ColumnMap columns = new StandableColumns.ColumnMap(2);
+		columns.put(1L, column());
+		columns.put(2L, column());
+		columns.remove(1L);
+		columns.put(3L, column());
+
+		assertNull(columns.get(1L));
+		assertNotNull(columns.get(2L));
+		assertNotNull(columns.get(3L));
+	}
+
+	@Test
+	public void chunkUnloadDropsOnlyThatChunksColumns() {
+		final StandableColumns.ColumnMap columns = new StandableColumns.ColumnMap(4096);
+		// Every column of chunk (1, -1) plus the columns just outside each of its edges
+		for (int x = 15; x <= 32; ++x) {
+			for (int z = -17; z <= 0; ++z) {
+				columns.put(ChunkPos.asLong(x, z), column());
+			}
+		}
+
+		assertEquals(256, StandableColumns.removeChunk(columns, 1, -1));
+		assertEquals(18 * 18 - 256, columns.size());
+		assertFalse(columns.containsKey(ChunkPos.asLong(16, -16)));
+		assertFalse(columns.containsKey(ChunkPos.asLong(31, -1)));
+		assertTrue(columns.containsKey(ChunkPos.asLong(15, -8)));
+		assertTrue(columns.containsKey(ChunkPos.asLong(32, -8)));
+		assertTrue(columns.containsKey(ChunkPos.asLong(20, -17)));
+		assertTrue(columns.containsKey(ChunkPos.asLong(20, 0)));
+
+		// A second unload of the same chunk has nothing left to drop
+		assertEquals(0, StandableColumns.removeChunk(columns, 1, -1));
+	}
+
+	@Test
+	public void columnsExpireAtTheirDeadline() {
+		final StandableColumns.Column column = new StandableColumns.Column(new BitSet(), 1200);
+		assertFalse(column.isExpired(0));
+		assertFalse(column.isExpired(1199));
+		assertTrue(column.isExpired(1200));
+		assertTrue(column.isExpired(5000));
+	}
+}
@@ -0,0 +1,118 @@
+package com.sylvan.presence.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimerWheelTest {
+	private List<Long> firedAt;
+	private TimerWheel wheel;
+
+	@Before
+	public void setUp() {
+		firedAt = new ArrayList<>();
+		wheel = new TimerWheel(timer -> {
+			firedAt.add(wheel.getCurrentTick());
+			timer.getTask().run();
+		});
+	}
+
+	private void tick(final long ticks) {
+		for (long i = 0; i < ticks; ++i) {
+			wheel.tick();
+		}
+	}
+
+	private void assertFiresAfter(final long delay) {
+		setUp();
+		wheel.newTimer(() -> {}).arm(delay);
+		tick(delay + 64);
+		assertEquals("delay " + delay, 1, firedAt.size());
+		assertEquals("delay " + delay, delay, (long) firedAt.get(0));
+	}
+
+	@Test
+	public void firesOnTheExactTickAtEveryLevel() {
+		// Either side of each level boundary, so timers must cascade down to fire
+		final long[] delays = { 1, 2, 63, 64, 65, 127, 4095, 4096, 4097, 262143, 262144, 262145, 300000 };
+		for (final long delay : delays) {
+			assertFiresAfter(delay);
+		}
+	}
+
+	@Test
+	public void cascadesWhenArmedPartWayThroughALevel() {
+		tick(37);
+		wheel.newTimer(() -> {}).arm(5000);
+		tick(5000 + 64);
+		assertEquals(1, firedAt.size());
+		assertEquals(37 + 5000, (long) firedAt.get(0));
+	}
+
+	@Test
+	public void clampsDelaysToAtLeastOneTick() {
+		wheel.newTimer(() -> {}).arm(0);
+		tick(1);
+		assertEquals(1, firedAt.size());
+		assertEquals(1, (long) firedAt.get(0));
+	}
+
+	@Test
+	public void rearmingMovesTheDeadline() {
+		final TimerWheel.Timer timer = wheel.newTimer(() -> {});
+		timer.arm(10);
+		tick(5);
+		timer.arm(100);
+		assertEquals(1, wheel.getArmedTimers());
+		tick(200);
+		assertEquals(1, firedAt.size());
+		assertEquals(105, (long) firedAt.get(0));
+		assertFalse(timer.isArmed());
+		assertEquals(0, wheel.getArmedTimers());
+	}
+
+	@Test
+	public void cancelledTimersNeverFire() {
+		final TimerWheel.Timer timer = wheel.newTimer(() -> {});
+		timer.arm(5000);
+		tick(4100);
+		timer.cancel();
+		tick(1000);
+		assertTrue(firedAt.isEmpty());
+		assertEquals(0, wheel.getArmedTimers());
+	}
+
+	@Test
+	public void tasksCanRearmTheirOwnTimer() {
+		final TimerWheel.Timer[] timer = new TimerWheel.Timer[1];
+		timer[0] = wheel.newTimer(() -> {
+			if (firedAt.size() < 3) timer[0].arm(70);
+		});
+		timer[0].arm(70);
+		tick(1000);
+		assertEquals(3, firedAt.size());
+		assertEquals(70, (long) firedAt.get(0));
+		assertEquals(140, (long) firedAt.get(1));
+		assertEquals(210, (long) firedAt.get(2));
+	}
+
+	@Test
+	public void clearDisarmsEverything() {
+		final TimerWheel.Timer near = wheel.newTimer(() -> {});
+		final TimerWheel.Timer far = wheel.newTimer(() -> {});
+		near.arm(3);
+		far.arm(100000);
+		wheel.clear();
+		assertFalse(near.isArmed());
+		assertFalse(far.isArmed());
+		assertEquals(0, wheel.getArmedTimers());
+		tick(1000);
+		assertTrue(firedAt.isEmpty());
+	}
+}
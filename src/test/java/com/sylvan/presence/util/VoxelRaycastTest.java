@@ -0,0 +1,132 @@
+package com.sylvan.presence.util;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.Vec3d;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class VoxelRaycastTest {
+	private static final IBlockState AIR = newState();
+	private static final IBlockState WALL = newState();
+
+	// Block states are never inspected here beyond identity
+	private static IBlockState newState() {
+		return (IBlockState) Proxy.newProxyInstance(
+			IBlockState.class.getClassLoader(),
+			new Class<?>[] { IBlockState.class },
+			(proxy, method, args) -> {
+				if (method.getName().equals("equals")) return proxy == args[0];
+				if (method.getName().equals("hashCode")) return System.identityHashCode(proxy);
+				return null;
+			}
+		);
+	}
+
+	// Walks an empty world apart from the given walls, remembering each voxel it reads
+	private static class RecordingRaycast extends VoxelRaycast {
+		private final List<String> visited = new ArrayList<>();
+		private final Set<String> walls = new HashSet<>();
+
+		private RecordingRaycast(final String... walls) {
+			for (final String wall : walls) {
+				this.walls.add(wall);
+			}
+		}
+
+		@Override
+		IBlockState getBlockState(final int x, final int y, final int z) {
+			final String voxel = x + "," + y + "," + z;
+			visited.add(voxel);
+			return walls.contains(voxel) ? WALL : AIR;
+		}
+
+		private boolean cast(final Vec3d from, final Vec3d to) {
+			return cast(null, from, to, state -> state == WALL);
+		}
+	}
+
+	private static int[] parse(final String voxel) {
+		final String[] parts = voxel.split(",");
+		return new int[] { Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]) };
+	}
+
+	@Test
+	public void walksEveryVoxelAlongAnAxis() {
+		final RecordingRaycast ray = new RecordingRaycast();
+		assertFalse(ray.cast(new Vec3d(0.5, 64.5, 0.5), new Vec3d(5.5, 64.5, 0.5)));
+		assertEquals(6, ray.visited.size());
+		for (int x = 0; x <= 5; ++x) {
+			assertEquals(x + ",64,0", ray.visited.get(x));
+		}
+		assertFalse(ray.isHit());
+	}
+
+	@Test
+	public void walksBackwardsAndThroughNegativeCoordinates() {
+		final RecordingRaycast ray = new RecordingRaycast();
+		assertFalse(ray.cast(new Vec3d(-0.5, 64.5, -3.2), new Vec3d(-4.5, 64.5, -3.2)));
+		assertEquals(5, ray.visited.size());
+		for (int i = 0; i < 5; ++i) {
+			assertEquals((-1 - i) + ",64,-4", ray.visited.get(i));
+		}
+	}
+
+	@Test
+	public void stepsOneFaceAtATimeOnDiagonals() {
+		final RecordingRaycast ray = new RecordingRaycast();
+		ray.cast(new Vec3d(0.3, 64.5, 0.5), new Vec3d(3.7, 66.2, -2.9));
+		assertEquals("0,64,0", ray.visited.get(0));
+		assertEquals("3,66,-3", ray.visited.get(ray.visited.size() - 1));
+		assertEquals(3 + 2 + 3 + 1, ray.visited.size());
+		for (int i = 1; i < ray.visited.size(); ++i) {
+			final int[] previous = parse(ray.visited.get(i - 1));
+			final int[] current = parse(ray.visited.get(i));
+			final int moved = Math.abs(current[0] - previous[0]) + Math.abs(current[1] - previous[1]) + Math.abs(current[2] - previous[2]);
+			assertEquals("step " + i, 1, moved);
+		}
+	}
+
+	@Test
+	public void stopsAtTheFirstBlockingVoxel() {
+		final RecordingRaycast ray = new RecordingRaycast("3,64,0", "4,64,0");
+		assertTrue(ray.cast(new Vec3d(0.5, 64.5, 0.5), new Vec3d(8.5, 64.5, 0.5)));
+		assertTrue(ray.isHit());
+		assertSame(WALL, ray.getHitState());
+		assertEquals("3,64,0", ray.visited.get(ray.visited.size() - 1));
+		assertEquals(4, ray.visited.size());
+	}
+
+	@Test
+	public void includesBothEnds() {
+		final RecordingRaycast start = new RecordingRaycast("0,64,0");
+		assertTrue(start.cast(new Vec3d(0.5, 64.5, 0.5), new Vec3d(2.5, 64.5, 0.5)));
+		final RecordingRaycast end = new RecordingRaycast("2,64,0");
+		assertTrue(end.cast(new Vec3d(0.5, 64.5, 0.5), new Vec3d(2.5, 64.5, 0.5)));
+	}
+
+	@Test
+	public void stopsWithoutAHitOutsideTheWorldHeight() {
+		final RecordingRaycast ray = new RecordingRaycast("0,256,0");
+		assertFalse(ray.cast(new Vec3d(0.5, 254.5, 0.5), new Vec3d(0.5, 258.5, 0.5)));
+		assertEquals(2, ray.visited.size());
+		assertFalse(ray.isHit());
+	}
+
+	@Test
+	public void resetsTheHitBetweenCasts() {
+		final RecordingRaycast ray = new RecordingRaycast("2,64,0");
+		assertTrue(ray.cast(new Vec3d(0.5, 64.5, 0.5), new Vec3d(4.5, 64.5, 0.5)));
+		assertFalse(ray.cast(new Vec3d(0.5, 64.5, 5.5), new Vec3d(4.5, 64.5, 5.5)));
+		assertFalse(ray.isHit());
+	}
+}
@@ -0,0 +1,91 @@
+package com.sylvan.presence.util;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WeightedSamplerTest {
+	private static final int SAMPLES = 200000;
+
+	private static Map<String, Integer> count(final WeightedSampler<String> sampler, final RandomHelper random) {
+		final Map<String, Integer> counts = new HashMap<>();
+		for (int i = 0; i < SAMPLES; ++i) {
+			counts.merge(sampler.sample(random), 1, Integer::sum);
+		}
+		return counts;
+	}
+
+	@Test
+	public void emptyMapsSampleNothing() {
+		final WeightedSampler<String> sampler = WeightedSampler.compile(new HashMap<>());
+		assertTrue(sampler.isEmpty());
+		assertNull(sampler.sample(new RandomHelper(1)));
+		assertNull(WeightedSampler.<String>empty().sample(new RandomHelper(1)));
+	}
+
+	@Test
+	public void skipsKeysWithoutAPositiveWeight() {
+		final Map<String, Float> weights = new LinkedHashMap<>();
+		weights.put("zero", 0.0f);
+		weights.put("negative", -1.0f);
+		assertTrue(WeightedSampler.compile(weights).isEmpty());
+
+		weights.put("only", 0.5f);
+		final WeightedSampler<String> sampler = WeightedSampler.compile(weights);
+		assertFalse(sampler.isEmpty());
+		final Map<String, Integer> counts = count(sampler, new RandomHelper(7));
+		assertEquals(1, counts.size());
+		assertEquals(SAMPLES, (int) counts.get("only"));
+	}
+
+	@Test
+	public void samplesInProportionToWeight() {
+		final Map<String, Float> weights = new LinkedHashMap<>();
+		weights.put("rare", 1.0f);
+		weights.put("common", 6.0f);
+		weights.put("uncommon", 3.0f);
+		weights.put("never", 0.0f);
+		final Map<String, Integer> counts = count(WeightedSampler.compile(weights), new RandomHelper(42));
+
+		assertFalse(counts.containsKey("never"));
+		assertEquals(0.1, counts.get("rare") / (double) SAMPLES, 0.01);
+		assertEquals(0.6, counts.get("common") / (double) SAMPLES, 0.01);
+		assertEquals(0.3, counts.get("uncommon") / (double) SAMPLES, 0.01);
+	}
+
+	@Test
+	public void handlesManyUnevenWeights() {
+		final Map<String, Float> weights = new LinkedHashMap<>();
+		float totalWeight = 0.0f;
+		for (int i = 1; i <= 20; ++i) {
+			weights.put("key" + i, (float) (i * i));
+			totalWeight += i * i;
+		}
+		final Map<String, Integer> counts = count(WeightedSampler.compile(weights), new RandomHelper(3));
+		for (int i = 1; i <= 20; ++i) {
+			final double expected = i * i / (double) totalWeight;
+			assertEquals("key" + i, expected, counts.getOrDefault("key" + i, 0) / (double) SAMPLES, 0.01);
+		}
+	}
+
+	@Test
+	public void sameSeedGivesTheSameSequence() {
+		final Map<String, Float> weights = new LinkedHashMap<>();
+		weights.put("a", 1.0f);
+		weights.put("b", 2.0f);
+		weights.put("c", 3.0f);
+		final WeightedSampler<String> sampler = WeightedSampler.compile(weights);
+		final RandomHelper first = new RandomHelper(99);
+		final RandomHelper second = new RandomHelper(99);
+		for (int i = 0; i < 1000; ++i) {
+			assertEquals(sampler.sample(first), sampler.sample(second));
+		}
+	}
+}